@@ -0,0 +1,57 @@
+package com.selau.booking;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selau.booking.benchmark.BenchmarkInput;
+import com.selau.booking.benchmark.BenchmarkInput.Shape;
+import com.selau.booking.benchmark.BenchmarkInput.Size;
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Growth of the {@link LeastRouteSearch} with the number of locations to
+ *  visit, on a built network of the largest size. The BIPARTITE shape has no
+ *  cheap route to bound the search and runs the color coding in full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LeastRouteSearchBenchmark {
+
+    @Param
+    Shape shape;
+
+    @Param({ "LARGE" })
+    Size size;
+
+    @Param({ "3", "4", "5", "6" })
+    int locationsToVisit;
+
+    private RoadsNetwork roadsNetwork;
+
+    @Setup
+    public void setUp() throws IOException {
+        roadsNetwork = BenchmarkInput.read(BenchmarkInput.generate(shape, size, BenchmarkInput.SEED)).build();
+    }
+
+    @Benchmark
+    public int leastRoute() {
+        return new LeastRouteSearch(roadsNetwork, locationsToVisit).leastRoute();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.selau.booking;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selau.booking.Solution.Strategy;
+import com.selau.booking.benchmark.BenchmarkInput;
+import com.selau.booking.benchmark.BenchmarkInput.Shape;
+import com.selau.booking.benchmark.BenchmarkInput.Size;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Strategies of {@link Solution}: solving from the parsed roads, graph build
+ *  included, and end to end from the input bytes, reusing one solver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolutionBenchmark {
+
+    @Param
+    Shape shape;
+
+    @Param
+    Size size;
+
+    @Param({ "PRIORITY_QUEUE", "LIGHTEST_ROADS", "FORK_JOIN", "STREAMING" })
+    String strategyName;
+
+    private Strategy strategy;
+    private byte[] input;
+    private RoadsNetworkBuilder roads;
+    private ForkJoinPool pool;
+    private WeekendRouteSolver solver;
+
+    @Setup
+    public void setUp() throws IOException {
+        strategy = Strategy.valueOf(strategyName);
+        input = BenchmarkInput.generate(shape, size, BenchmarkInput.SEED);
+        roads = BenchmarkInput.read(input);
+        pool = new ForkJoinPool();
+        solver = Solution.newSolver(strategy, pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int solve() {
+        return WeekendRouteSolvers.solve(roads, solver);
+    }
+
+    @Benchmark
+    public int endToEnd() throws IOException {
+        return BenchmarkInput.read(input, solver).solve();
+    }
+
+}
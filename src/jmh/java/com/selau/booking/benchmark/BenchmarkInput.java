@@ -0,0 +1,170 @@
+package com.selau.booking.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.selau.booking.WeekendRouteSolver;
+import com.selau.booking.WeekendRouteSolvers;
+import com.selau.booking.generator.RoadsNetworkGenerator;
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Seeded single-case inputs for the benchmarks, written by the
+ *  {@link RoadsNetworkGenerator} into memory.
+ */
+public final class BenchmarkInput {
+
+    public static final long SEED = 20160401L;
+
+    private static final double PARALLEL_ROADS_DUPLICATES = 7.0 / 8;
+
+    private static final int BIPARTITE_CHAIN = 6;
+
+    /**
+     *  Shapes of roads networks stressing different parts of the solvers.
+     */
+    public enum Shape {
+
+        /** Roads between uniformly random locations. */
+        SPARSE_RANDOM,
+
+        /** Every pair of the first locations connected, as few as needed for the roads. */
+        DENSE,
+
+        /** One hub connected to every other location, the remaining roads random. */
+        STAR,
+
+        /** Square grid with roads between horizontal and vertical neighbors, the remaining roads random. */
+        GRID,
+
+        /** Random pairs of locations each connected by eight roads on average. */
+        PARALLEL_ROADS,
+
+        /**
+         *  Two hubs connected to every other location by the lightest roads,
+         *  and apart a chain of six locations connected by the longest ones:
+         *  the only route through six locations, behind all the shorter ones.
+         */
+        BIPARTITE
+
+    }
+
+    /**
+     *  Sizes of the generated cases, up to the limits of the problem.
+     */
+    public enum Size {
+
+        SMALL(1000, 4000),
+
+        LARGE(100000, 400000);
+
+        private final int locations;
+        private final int roads;
+
+        private Size(final int locations, final int roads) {
+            this.locations = locations;
+            this.roads = roads;
+        }
+
+        public int locations() {
+            return locations;
+        }
+
+        public int roads() {
+            return roads;
+        }
+
+    }
+
+    private BenchmarkInput() {
+    }
+
+    public static byte[] generate(final Shape shape, final Size size, final long seed) throws IOException {
+        if (shape == Shape.BIPARTITE)
+            return bipartite(size);
+
+        final RoadsNetworkGenerator generator = new RoadsNetworkGenerator(seed);
+
+        switch (shape) {
+        case DENSE:
+            generator.shape(RoadsNetworkGenerator.Shape.DENSE);
+            break;
+        case STAR:
+            generator.shape(RoadsNetworkGenerator.Shape.HUB);
+            break;
+        case GRID:
+            generator.shape(RoadsNetworkGenerator.Shape.GRID);
+            break;
+        case PARALLEL_ROADS:
+            generator.duplicates(PARALLEL_ROADS_DUPLICATES);
+            break;
+        default:
+            generator.shape(RoadsNetworkGenerator.Shape.RANDOM);
+        }
+
+        final ByteArrayOutputStream input = new ByteArrayOutputStream(16 * size.roads());
+        final OutputWriter writer = new OutputWriter(input);
+
+        generator.generate(1, size.locations(), size.roads(), writer);
+        writer.flush();
+
+        return input.toByteArray();
+    }
+
+    /**
+     *  Written directly, as it takes fixed lengths and no random roads.
+     */
+    private static byte[] bipartite(final Size size) throws IOException {
+        final int shared = Math.min(size.locations() - 2 - BIPARTITE_CHAIN, (size.roads() - BIPARTITE_CHAIN + 1) / 2);
+        final ByteArrayOutputStream input = new ByteArrayOutputStream(16 * size.roads());
+        final OutputWriter writer = new OutputWriter(input);
+
+        writer.println(1);
+        writer.print(size.locations());
+        writer.print(' ');
+        writer.println(2 * shared + BIPARTITE_CHAIN - 1);
+
+        for (int location = 3; location < shared + 3; location++) {
+            for (int hub = 1; hub <= 2; hub++)
+                writeRoad(writer, hub, location, 1);
+        }
+        for (int location = shared + 3; location < shared + 2 + BIPARTITE_CHAIN; location++)
+            writeRoad(writer, location, location + 1, RoadsNetwork.MAX_LENGTH);
+
+        writer.flush();
+        return input.toByteArray();
+    }
+
+    private static void writeRoad(final OutputWriter writer, final int source, final int target, final int length) throws IOException {
+        writer.print(source);
+        writer.print(' ');
+        writer.print(target);
+        writer.print(' ');
+        writer.println(length);
+    }
+
+    /**
+     *  Reads the single case of a generated input.
+     */
+    public static RoadsNetworkBuilder read(final byte[] input) throws IOException {
+        final InputReader reader = new InputReader(new ByteArrayInputStream(input));
+
+        reader.nextInt();
+        return RoadsNetworkBuilder.read(reader);
+    }
+
+    /**
+     *  Resets solver with the first test case of input.
+     */
+    public static WeekendRouteSolver read(final byte[] input, final WeekendRouteSolver solver) throws IOException {
+        final InputReader reader = new InputReader(new ByteArrayInputStream(input));
+
+        reader.nextInt();
+        return WeekendRouteSolvers.read(reader, solver);
+    }
+
+}
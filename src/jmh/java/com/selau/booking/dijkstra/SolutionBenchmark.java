@@ -0,0 +1,72 @@
+package com.selau.booking.dijkstra;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selau.booking.WeekendRouteSolver;
+import com.selau.booking.benchmark.BenchmarkInput;
+import com.selau.booking.benchmark.BenchmarkInput.Shape;
+import com.selau.booking.benchmark.BenchmarkInput.Size;
+import com.selau.booking.dijkstra.Solution.DijkstraSolver;
+import com.selau.booking.dijkstra.Solution.QueueType;
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Queues of the dijkstra {@link Solution}: solving a built network and end to
+ *  end from the input bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SolutionBenchmark {
+
+    @Param
+    Shape shape;
+
+    @Param
+    Size size;
+
+    @Param({ "BUCKET", "HEAP" })
+    String queueName;
+
+    private QueueType queueType;
+    private HopLayeredSearch search;
+    private WeekendRouteSolver solver;
+    private byte[] input;
+    private RoadsNetwork roadsNetwork;
+
+    @Setup
+    public void setUp() throws IOException {
+        queueType = QueueType.valueOf(queueName);
+        input = BenchmarkInput.generate(shape, size, BenchmarkInput.SEED);
+        roadsNetwork = BenchmarkInput.read(input).build();
+        search = new HopLayeredSearch(queueType);
+        solver = new DijkstraSolver(queueType);
+    }
+
+    @Benchmark
+    public int solve() {
+        return search.leastWalk(roadsNetwork, 2);
+    }
+
+    @Benchmark
+    public int endToEnd() throws IOException {
+        return BenchmarkInput.read(input, solver).solve();
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.selau.booking.network;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.selau.booking.benchmark.BenchmarkInput;
+import com.selau.booking.benchmark.BenchmarkInput.Shape;
+import com.selau.booking.benchmark.BenchmarkInput.Size;
+
+/**
+ *  Parse and graph build phases shared by both solvers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RoadsNetworkBenchmark {
+
+    @Param
+    Shape shape;
+
+    @Param
+    Size size;
+
+    private byte[] input;
+    private RoadsNetworkBuilder roads;
+
+    @Setup
+    public void setUp() throws IOException {
+        input = BenchmarkInput.generate(shape, size, BenchmarkInput.SEED);
+        roads = BenchmarkInput.read(input);
+    }
+
+    @Benchmark
+    public RoadsNetworkBuilder parse() throws IOException {
+        return BenchmarkInput.read(input);
+    }
+
+    @Benchmark
+    public RoadsNetwork build() {
+        return roads.build();
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.selau.booking;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.selau.booking.io.InputReader;
+
+/**
+ *  Command line of the solvers: options in the form --name=value followed by
+ *  an optional input file. Without a file the input is read from stdin.
+ */
+public class Arguments {
+
+    private final Map<String, String> options;
+    private final String inputPath;
+
+    private Arguments(final Map<String, String> options, final String inputPath) {
+        this.options = options;
+        this.inputPath = inputPath;
+    }
+
+    public static Arguments parse(final String[] args) {
+        final Map<String, String> options = new HashMap<String, String>();
+        String inputPath = null;
+
+        for (final String argument : args) {
+            if (argument.startsWith("--")) {
+                final int separator = argument.indexOf('=');
+
+                if (separator < 0)
+                    options.put(argument.substring(2), "true");
+                else
+                    options.put(argument.substring(2, separator), argument.substring(separator + 1));
+            } else if (inputPath == null) {
+                inputPath = argument;
+            } else {
+                throw new IllegalArgumentException("Unexpected argument " + argument + ".");
+            }
+        }
+        return new Arguments(options, inputPath);
+    }
+
+    public String inputPath() {
+        return inputPath;
+    }
+
+    public InputReader openInput() throws IOException {
+        return (inputPath != null) ? InputReader.open(inputPath) : new InputReader(System.in);
+    }
+
+    public String option(final String name, final String defaultValue) {
+        final String value = options.get(name);
+        return (value != null) ? value : defaultValue;
+    }
+
+    public int intOption(final String name, final int defaultValue) {
+        final String value = options.get(name);
+
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " for option --" + name + ".", e);
+        }
+    }
+
+    public long longOption(final String name, final long defaultValue) {
+        final String value = options.get(name);
+
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " for option --" + name + ".", e);
+        }
+    }
+
+    public double doubleOption(final String name, final double defaultValue) {
+        final String value = options.get(name);
+
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " for option --" + name + ".", e);
+        }
+    }
+
+    public <E extends Enum<E>> E enumOption(final String name, final Class<E> type, final E defaultValue) {
+        final String value = options.get(name);
+
+        if (value == null)
+            return defaultValue;
+
+        try {
+            return Enum.valueOf(type, value.toUpperCase().replace('-', '_'));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value " + value + " for option --" + name + ".", e);
+        }
+    }
+
+    /**
+     *  Fails when option is given together with any of the others, which it
+     *  would otherwise ignore.
+     */
+    public void rejectCombined(final String option, final String... others) {
+        if (!options.containsKey(option))
+            return;
+
+        for (final String other : others) {
+            if (options.containsKey(other))
+                throw new IllegalArgumentException("Option --" + option + " cannot be combined with --" + other + ".");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Arguments [options=" + options + ", inputPath=" + inputPath + "]";
+    }
+
+}
@@ -0,0 +1,226 @@
+package com.selau.booking;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.metrics.SolverMetrics;
+
+/**
+ *  Runs the test cases of an input through a solver.
+ *
+ *  With a single worker the cases are read, solved and printed one after
+ *  another. With more workers a parser thread reads the next cases while a
+ *  pool of workers solves the previous ones, and the answers are printed in
+ *  input order as they complete. At most two cases per worker wait parsed in
+ *  memory, so the parser never runs too far ahead of the solvers.
+ */
+public class CasePipeline {
+
+    public interface CaseSolver<C> {
+
+        C read(InputReader reader) throws IOException;
+
+        int solve(C weekendCase);
+
+    }
+
+    private CasePipeline() {
+    }
+
+    /**
+     *  Reads every case into a solver taken from a pool and gives it back once
+     *  solved. The pool only grows up to the number of cases in flight, so the
+     *  solvers and their buffers are reused from case to case.
+     */
+    public static CaseSolver<WeekendRouteSolver> pooled(final WeekendRouteSolver.Factory factory) {
+        final Queue<WeekendRouteSolver> solvers = new ConcurrentLinkedQueue<WeekendRouteSolver>();
+
+        return new CaseSolver<WeekendRouteSolver>() {
+
+            @Override
+            public WeekendRouteSolver read(final InputReader reader) throws IOException {
+                final WeekendRouteSolver solver = solvers.poll();
+                final long start = SolverMetrics.start();
+
+                try {
+                    return WeekendRouteSolvers.read(reader, (solver != null) ? solver : factory.create());
+                } finally {
+                    SolverMetrics.parsed(start);
+                }
+            }
+
+            @Override
+            public int solve(final WeekendRouteSolver solver) {
+                final long start = SolverMetrics.startSolve();
+
+                try {
+                    return solver.solve();
+                } finally {
+                    SolverMetrics.solved(start);
+                    solvers.offer(solver);
+                }
+            }
+
+        };
+    }
+
+    public static <C> void run(final InputReader reader, final OutputWriter writer, final int workers, final CaseSolver<C> caseSolver) throws IOException {
+        if (workers < 1)
+            throw new IllegalArgumentException("Invalid number of workers " + workers + ".");
+
+        final int cases = reader.nextInt();
+
+        if (workers == 1) {
+            for (int weekendCase = 1; weekendCase <= cases; weekendCase++)
+                writer.println(caseSolver.solve(caseSolver.read(reader)));
+            return;
+        }
+
+        final ExecutorService parsers = Executors.newSingleThreadExecutor(new DaemonThreadFactory("case-parser-"));
+        final ExecutorService pool = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("case-worker-"));
+        try {
+            run(reader, writer, cases, 2 * workers, parsers, pool, caseSolver);
+        } finally {
+            pool.shutdownNow();
+            parsers.shutdownNow();
+        }
+    }
+
+    /**
+     *  Solves cases on pools shared with other inputs, such as the requests
+     *  of a {@link SolverServer}, with at most inFlight of them parsed ahead of
+     *  the answers printed.
+     *
+     *  @param parsers runs the parser of the input, which is interrupted once
+     *  the answers are printed or have failed, so its thread serves the next
+     *  input.
+     */
+    public static <C> void run(final InputReader reader, final OutputWriter writer, final int cases, final int inFlight,
+            final ExecutorService parsers, final ExecutorService pool, final CaseSolver<C> caseSolver) throws IOException {
+
+        final BlockingQueue<Future<Integer>> answers = new ArrayBlockingQueue<Future<Integer>>(inFlight);
+        final Future<?> parser = parsers.submit(new Parser<C>(reader, cases, caseSolver, pool, answers));
+
+        try {
+            for (int weekendCase = 1; weekendCase <= cases; weekendCase++)
+                writer.println(answer(answers.take()));
+
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the answers.");
+
+        } finally {
+            parser.cancel(true);
+        }
+    }
+
+    private static int answer(final Future<Integer> future) throws IOException, InterruptedException {
+        try {
+            return future.get().intValue();
+
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private static class Parser<C> implements Runnable {
+
+        private final InputReader reader;
+        private final int cases;
+        private final CaseSolver<C> caseSolver;
+        private final ExecutorService pool;
+        private final BlockingQueue<Future<Integer>> answers;
+
+        Parser(final InputReader reader, final int cases, final CaseSolver<C> caseSolver,
+                final ExecutorService pool, final BlockingQueue<Future<Integer>> answers) {
+
+            this.reader = reader;
+            this.cases = cases;
+            this.caseSolver = caseSolver;
+            this.pool = pool;
+            this.answers = answers;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int weekendCase = 1; weekendCase <= cases; weekendCase++) {
+                    final C parsedCase = caseSolver.read(reader);
+
+                    answers.put(pool.submit(new Callable<Integer>() {
+
+                        @Override
+                        public Integer call() {
+                            return Integer.valueOf(caseSolver.solve(parsedCase));
+                        }
+
+                    }));
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+            } catch (final Exception e) {
+                fail(e);
+            }
+        }
+
+        private void fail(final Exception exception) {
+            final FutureTask<Integer> failure = new FutureTask<Integer>(new Callable<Integer>() {
+
+                @Override
+                public Integer call() throws Exception {
+                    throw exception;
+                }
+
+            });
+            failure.run();
+
+            try {
+                answers.put(failure);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private int count;
+
+        DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public synchronized Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + (++count));
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,370 @@
+package com.selau.booking;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import com.selau.booking.network.LongIntHashMap;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+import com.selau.booking.queue.IndexedMinHeap;
+
+/**
+ *  Keeps the least route through three locations up to date while roads are
+ *  added, removed or change length, instead of solving the whole network
+ *  again after every change.
+ *
+ *  Parallel roads between two locations are grouped, found by the pair of
+ *  locations in a {@link LongIntHashMap}, and only the shortest one counts.
+ *  Every location keeps its neighbors in a binary min-heap of longs packing
+ *  the length and the neighbor, each pair remembering its position in the
+ *  heaps of both ends, so the best route of a location as middle one is the
+ *  sum of the top of its heap and the lighter of its two children. A heap
+ *  indexed by location keeps the least of those routes on top. An update
+ *  touches the two ends of a road only: O(log N) plus shifting the parallel
+ *  roads of the pair, usually just one, without allocating once the arrays
+ *  have grown, and leastRoute() is O(1).
+ */
+public class DynamicRoads {
+
+    static final int NO_LENGTH = 0;
+    static final int NO_PAIR = -1;
+
+    private final int locations;
+    private final LongIntHashMap pairs = new LongIntHashMap();
+    private final long[][] neighbors;
+    private final int[][] neighborPairs;
+    private final int[] degrees;
+    private final IndexedMinHeap leastRoutes;
+
+    private int roads;
+    private int[] sources = new int[16];
+    private int[] targets = new int[16];
+    private int[] lengths = new int[16];
+    private int[] freeRoads = new int[16];
+    private int freeCount;
+
+    private ParallelRoads[] parallelRoads = new ParallelRoads[16];
+    private int pairCount;
+    private int[] freePairs = new int[16];
+    private int freePairCount;
+
+    public DynamicRoads(final int locations) {
+        if (locations < 0)
+            throw new IllegalArgumentException("Invalid negative number of locations.");
+
+        this.locations = locations;
+        this.neighbors = new long[locations][];
+        this.neighborPairs = new int[locations][];
+        this.degrees = new int[locations];
+        this.leastRoutes = new IndexedMinHeap(locations);
+
+        for (int location = 0; location < locations; location++)
+            leastRoutes.offer(location, RoadsNetwork.INFINITE_DISTANCE);
+    }
+
+    public int locations() {
+        return locations;
+    }
+
+    /**
+     *  @return the id of the new road, valid until it is removed.
+     */
+    public int addRoad(final int source, final int target, final int length) {
+        RoadsNetworkBuilder.validateRoad(locations, source, target, length);
+
+        final int road = newRoad();
+        sources[road] = source;
+        targets[road] = target;
+        lengths[road] = length;
+
+        link(source, target, length);
+        return road;
+    }
+
+    public void removeRoad(final int road) {
+        checkRoad(road);
+
+        unlink(sources[road], targets[road], lengths[road]);
+        lengths[road] = NO_LENGTH;
+
+        if (freeCount == freeRoads.length)
+            freeRoads = grow(freeRoads);
+        freeRoads[freeCount++] = road;
+    }
+
+    public void updateLength(final int road, final int length) {
+        checkRoad(road);
+        RoadsNetworkBuilder.validateRoad(locations, sources[road], targets[road], length);
+
+        if (length == lengths[road])
+            return;
+
+        unlink(sources[road], targets[road], lengths[road]);
+        lengths[road] = length;
+        link(sources[road], targets[road], length);
+    }
+
+    public int source(final int road) {
+        checkRoad(road);
+        return sources[road];
+    }
+
+    public int target(final int road) {
+        checkRoad(road);
+        return targets[road];
+    }
+
+    public int length(final int road) {
+        checkRoad(road);
+        return lengths[road];
+    }
+
+    /**
+     *  @return the least route through three locations, or INFINITE_DISTANCE
+     *  when no location has two distinct neighbors.
+     */
+    public int leastRoute() {
+        return leastRoutes.isEmpty() ? RoadsNetwork.INFINITE_DISTANCE : leastRoutes.peekDistance();
+    }
+
+    /**
+     *  @return the middle location of the least route, or -1 when there is no
+     *  route through three locations.
+     */
+    public int leastRouteMiddle() {
+        return (leastRoute() == RoadsNetwork.INFINITE_DISTANCE) ? -1 : leastRoutes.peek();
+    }
+
+    public int leastRouteThrough(final int location) {
+        return leastRoutes.distance(location);
+    }
+
+    private void link(final int source, final int target, final int length) {
+        if (source == target)
+            return;
+
+        final long pair = LongIntHashMap.pair(source, target);
+        int index = pairs.get(pair, NO_PAIR);
+
+        if (index == NO_PAIR) {
+            index = newPair();
+            pairs.put(pair, index);
+        }
+        final ParallelRoads parallelRoads = this.parallelRoads[index];
+        final int previousLength = parallelRoads.shortest();
+        parallelRoads.add(length);
+
+        relink(source, target, index, previousLength, parallelRoads.shortest());
+    }
+
+    private void unlink(final int source, final int target, final int length) {
+        if (source == target)
+            return;
+
+        final long pair = LongIntHashMap.pair(source, target);
+        final int index = pairs.get(pair, NO_PAIR);
+        final ParallelRoads parallelRoads = this.parallelRoads[index];
+        final int previousLength = parallelRoads.shortest();
+        parallelRoads.remove(length);
+        relink(source, target, index, previousLength, parallelRoads.shortest());
+
+        if (parallelRoads.isEmpty()) {
+            pairs.remove(pair, NO_PAIR);
+
+            if (freePairCount == freePairs.length)
+                freePairs = grow(freePairs);
+            freePairs[freePairCount++] = index;
+        }
+    }
+
+    private void relink(final int source, final int target, final int pair, final int previousLength, final int length) {
+        if (previousLength == length)
+            return;
+
+        move(source, target, pair, previousLength, length);
+        move(target, source, pair, previousLength, length);
+    }
+
+    private void move(final int location, final int neighbor, final int pair, final int previousLength, final int length) {
+        if (previousLength != NO_LENGTH)
+            removeNeighbor(location, parallelRoads[pair].positions[side(location, neighbor)]);
+        if (length != NO_LENGTH)
+            addNeighbor(location, neighbor(neighbor, length), pair);
+
+        final long[] heap = neighbors[location];
+        final int degree = degrees[location];
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        if (degree >= 2) {
+            final long second = (degree == 2) ? heap[1] : Math.min(heap[1], heap[2]);
+            leastRoute = (int) (heap[0] >>> 32) + (int) (second >>> 32);
+        }
+        leastRoutes.update(location, leastRoute);
+    }
+
+    private void addNeighbor(final int location, final long neighbor, final int pair) {
+        final int degree = degrees[location];
+
+        if (neighbors[location] == null) {
+            neighbors[location] = new long[2];
+            neighborPairs[location] = new int[2];
+        } else if (degree == neighbors[location].length) {
+            neighbors[location] = Arrays.copyOf(neighbors[location], 2 * degree);
+            neighborPairs[location] = Arrays.copyOf(neighborPairs[location], 2 * degree);
+        }
+
+        degrees[location]++;
+        siftUp(location, degree, neighbor, pair);
+    }
+
+    private void removeNeighbor(final int location, final int position) {
+        final int last = --degrees[location];
+
+        if (position == last)
+            return;
+
+        final long neighbor = neighbors[location][last];
+        final int pair = neighborPairs[location][last];
+
+        if ((position > 0) && (neighbor < neighbors[location][(position - 1) / 2]))
+            siftUp(location, position, neighbor, pair);
+        else
+            siftDown(location, position, neighbor, pair);
+    }
+
+    private void siftUp(final int location, int position, final long neighbor, final int pair) {
+        final long[] heap = neighbors[location];
+
+        while (position > 0) {
+            final int parent = (position - 1) / 2;
+
+            if (heap[parent] <= neighbor)
+                break;
+
+            place(location, position, heap[parent], neighborPairs[location][parent]);
+            position = parent;
+        }
+        place(location, position, neighbor, pair);
+    }
+
+    private void siftDown(final int location, int position, final long neighbor, final int pair) {
+        final long[] heap = neighbors[location];
+        final int degree = degrees[location];
+
+        while (2 * position + 1 < degree) {
+            int child = 2 * position + 1;
+
+            if ((child + 1 < degree) && (heap[child + 1] < heap[child]))
+                child++;
+            if (heap[child] >= neighbor)
+                break;
+
+            place(location, position, heap[child], neighborPairs[location][child]);
+            position = child;
+        }
+        place(location, position, neighbor, pair);
+    }
+
+    private void place(final int location, final int position, final long neighbor, final int pair) {
+        neighbors[location][position] = neighbor;
+        neighborPairs[location][position] = pair;
+        parallelRoads[pair].positions[side(location, (int) neighbor)] = position;
+    }
+
+    /**
+     *  @return the index of empty parallel roads, reusing the ones of pairs
+     *  no longer connected.
+     */
+    private int newPair() {
+        if (freePairCount > 0)
+            return freePairs[--freePairCount];
+
+        if (pairCount == parallelRoads.length) {
+            final ParallelRoads[] grown = new ParallelRoads[2 * pairCount];
+
+            System.arraycopy(parallelRoads, 0, grown, 0, pairCount);
+            parallelRoads = grown;
+        }
+        parallelRoads[pairCount] = new ParallelRoads();
+        return pairCount++;
+    }
+
+    private int newRoad() {
+        if (freeCount > 0)
+            return freeRoads[--freeCount];
+
+        if (roads == sources.length) {
+            sources = grow(sources);
+            targets = grow(targets);
+            lengths = grow(lengths);
+        }
+        return roads++;
+    }
+
+    private void checkRoad(final int road) {
+        if ((road < 0) || (road >= roads) || (lengths[road] == NO_LENGTH))
+            throw new NoSuchElementException("Unknown road " + road + ".");
+    }
+
+    /**
+     *  @return which end of the pair location is, to find the position of
+     *  the neighbor in its heap.
+     */
+    private static int side(final int location, final int neighbor) {
+        return (location < neighbor) ? 0 : 1;
+    }
+
+    /**
+     *  Neighbors sort by road length first.
+     */
+    private static long neighbor(final int neighbor, final int length) {
+        return ((long) length << 32) | neighbor;
+    }
+
+    private static int[] grow(final int[] buffer) {
+        final int[] grown = new int[2 * buffer.length];
+
+        System.arraycopy(buffer, 0, grown, 0, buffer.length);
+        return grown;
+    }
+
+    /**
+     *  Lengths of the roads between two locations, sorted, usually just one.
+     */
+    static class ParallelRoads {
+
+        final int[] positions = new int[2];
+        private int[] lengths = new int[1];
+        private int size;
+
+        int shortest() {
+            return (size == 0) ? NO_LENGTH : lengths[0];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(final int length) {
+            if (size == lengths.length)
+                lengths = grow(lengths);
+
+            int position = size++;
+            while ((position > 0) && (lengths[position - 1] > length)) {
+                lengths[position] = lengths[position - 1];
+                position--;
+            }
+            lengths[position] = length;
+        }
+
+        void remove(final int length) {
+            int position = 0;
+            while (lengths[position] != length)
+                position++;
+
+            System.arraycopy(lengths, position + 1, lengths, position, --size - position);
+        }
+
+    }
+
+}
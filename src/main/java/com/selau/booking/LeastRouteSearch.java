@@ -0,0 +1,334 @@
+package com.selau.booking;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Least route through at least K distinct locations, K being 3 for the
+ *  weekend away. Roads are positive, so the least such route visits exactly
+ *  K locations: it is the least simple path of K - 1 roads.
+ *
+ *  A branch and bound over those paths answers most networks after a few
+ *  thousand roads, but enumerates every short path of dense bipartite ones,
+ *  O(N^3) for K = 6 on two hubs sharing all other locations. So it gives up
+ *  after as many roads as a single pass over the 2^(K-1) color sets below,
+ *  and the route it found so far bounds a color coding search instead: every
+ *  trial gives each location one of K random colors and finds the least path
+ *  whose K locations all have different colors, which is simple, by a dynamic
+ *  program over (set of colors, last location) states, O(2^K M) per trial.
+ *  The least route is colorful with probability K!/K^K, so after enough
+ *  trials it is missed with a probability below {@link #FAILURE_PROBABILITY}.
+ *  The colors are hashed from a fixed seed, so the same network always gives
+ *  the same answer.
+ *
+ *  Every road weighs at least the lightest road of the network, so like the
+ *  2 hops scan of {@link Solution}, both searches only start from locations
+ *  whose lightest road can still beat the best route found, and since the
+ *  roads of a location are sorted by length, a path stops extending at the
+ *  first road that cannot beat it either. Locations in the middle of a path
+ *  need two neighbors, so only the last road may lead to a location with a
+ *  single road.
+ */
+public class LeastRouteSearch {
+
+    /** Highest probability for the color coding to miss the least route. */
+    public static final double FAILURE_PROBABILITY = 1e-6;
+
+    static final long SEED = 20160401L;
+
+    private final int locationsToVisit;
+    private RoadsNetwork roadsNetwork;
+    private int[] innerOffsets = new int[1];
+    private int[] innerRoads = new int[0];
+    private boolean[] visited = new boolean[0];
+    private int[] order = new int[0];
+    private int[] distances = new int[0];
+    private long roadsPerPass;
+    private int[] states = new int[16];
+    private int[] nextStates = new int[16];
+    private int lightestLength;
+    private int leastRoute;
+    private long roadsLeftToScan;
+    private long colorSeed;
+
+    public LeastRouteSearch(final RoadsNetwork roadsNetwork, final int locationsToVisit) {
+        this(locationsToVisit);
+        reset(roadsNetwork);
+    }
+
+    /**
+     *  Search to reset with a network before every leastRoute().
+     */
+    public LeastRouteSearch(final int locationsToVisit) {
+        if (locationsToVisit < 2)
+            throw new IllegalArgumentException("Invalid number of locations to visit " + locationsToVisit + ".");
+
+        this.locationsToVisit = locationsToVisit;
+    }
+
+    /**
+     *  Indexes the roads of the next network to search, growing the buffers
+     *  only when it is larger than any network before.
+     */
+    public LeastRouteSearch reset(final RoadsNetwork roadsNetwork) {
+        final int locations = roadsNetwork.locations();
+        if ((locationsToVisit <= locations)
+                && ((locationsToVisit > Integer.SIZE) || (((long) locations << (locationsToVisit - 1)) > Integer.MAX_VALUE)))
+            throw new IllegalArgumentException("Too many locations to visit " + locationsToVisit + " for " + locations + " locations.");
+
+        this.roadsNetwork = roadsNetwork;
+        this.lightestLength = RoadsNetwork.INFINITE_DISTANCE;
+
+        if (innerOffsets.length < locations + 1) {
+            innerOffsets = new int[locations + 1];
+            visited = new boolean[locations];
+            order = new int[locations];
+        }
+        final int states = (locationsToVisit <= locations) ? locations << (locationsToVisit - 1) : 0;
+        if (distances.length < states) {
+            distances = new int[states];
+            Arrays.fill(distances, RoadsNetwork.INFINITE_DISTANCE);
+        }
+
+        long roads = 0;
+        for (int location = 0; location < locations; location++) {
+            innerOffsets[location + 1] = innerOffsets[location];
+            roads += roadsNetwork.lastRoad(location) - roadsNetwork.firstRoad(location);
+
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                if (isInner(roadsNetwork.neighbor(road)))
+                    innerOffsets[location + 1]++;
+            }
+        }
+        this.roadsPerPass = (locations + roads) << Math.min(locationsToVisit - 1, Integer.SIZE);
+
+        if (innerRoads.length < innerOffsets[locations])
+            innerRoads = new int[innerOffsets[locations]];
+        for (int location = 0, inner = 0; location < locations; location++) {
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                if (isInner(roadsNetwork.neighbor(road)))
+                    innerRoads[inner++] = road;
+            }
+
+            if ((roadsNetwork.firstRoad(location) < roadsNetwork.lastRoad(location))
+                    && (roadsNetwork.length(roadsNetwork.firstRoad(location)) < lightestLength))
+                lightestLength = roadsNetwork.length(roadsNetwork.firstRoad(location));
+        }
+        return this;
+    }
+
+    /**
+     *  @return the least route through at least locationsToVisit distinct
+     *  locations, or INFINITE_DISTANCE when there is none.
+     */
+    public int leastRoute() {
+        leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        if ((locationsToVisit > roadsNetwork.locations()) || (lightestLength == RoadsNetwork.INFINITE_DISTANCE))
+            return leastRoute;
+
+        final int connected = Solution.sortByLightestRoad(roadsNetwork, order);
+
+        if (branchAndBound(order, connected))
+            return leastRoute;
+
+        final Random random = new Random(SEED);
+        final int leastPossible = (locationsToVisit - 1) * lightestLength;
+        final int trials = trials(locationsToVisit);
+
+        for (int trial = 0; (trial < trials) && (leastRoute > leastPossible); trial++) {
+            colorSeed = random.nextLong();
+            leastColorfulRoute(order, connected);
+        }
+        return leastRoute;
+    }
+
+    /**
+     *  @return whether the search went through, or gave up after scanning
+     *  as many roads as a pass of the color coding.
+     */
+    private boolean branchAndBound(final int[] order, final int connected) {
+        final int otherRoads = locationsToVisit - 2;
+        roadsLeftToScan = roadsPerPass;
+
+        for (int polled = 0; polled < connected; polled++) {
+            final int start = order[polled];
+            final int lightestFromStart = roadsNetwork.length(roadsNetwork.firstRoad(start));
+
+            if (lightestFromStart + otherRoads * lightestLength >= leastRoute)
+                break;
+
+            visited[start] = true;
+            extend(start, 0, locationsToVisit - 1);
+            visited[start] = false;
+
+            if (roadsLeftToScan < 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void extend(final int location, final int length, final int roadsLeft) {
+        if (roadsLeft == 1) {
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                final int route = length + roadsNetwork.length(road);
+
+                if ((route >= leastRoute) || (--roadsLeftToScan < 0))
+                    return;
+
+                if (! visited[roadsNetwork.neighbor(road)]) {
+                    leastRoute = route;
+                    return;
+                }
+            }
+            return;
+        }
+
+        final int otherRoads = (roadsLeft - 1) * lightestLength;
+
+        for (int inner = innerOffsets[location]; inner < innerOffsets[location + 1]; inner++) {
+            final int road = innerRoads[inner];
+            final int partialRoute = length + roadsNetwork.length(road);
+
+            if ((partialRoute + otherRoads >= leastRoute) || (--roadsLeftToScan < 0))
+                return;
+
+            final int neighbor = roadsNetwork.neighbor(road);
+            if (! visited[neighbor]) {
+                visited[neighbor] = true;
+                extend(neighbor, partialRoute, roadsLeft - 1);
+                visited[neighbor] = false;
+
+                if (roadsLeftToScan < 0)
+                    return;
+            }
+        }
+    }
+
+    /**
+     *  Layer by layer over the number of colors, the distance of a state is
+     *  the least path ending at its location through exactly its colors.
+     *  Only the states reached are reset, so a trial costs nothing more than
+     *  the paths that can still beat the least route.
+     */
+    private void leastColorfulRoute(final int[] order, final int connected) {
+        final int locations = roadsNetwork.locations();
+        final int otherRoads = locationsToVisit - 2;
+        int size = 0;
+
+        for (int polled = 0; polled < connected; polled++) {
+            final int start = order[polled];
+
+            if (roadsNetwork.length(roadsNetwork.firstRoad(start)) + otherRoads * lightestLength >= leastRoute)
+                break;
+
+            distances[start] = 0;
+            states = add(states, size++, start);
+        }
+
+        for (int colored = 1; colored < locationsToVisit; colored++) {
+            final boolean last = (colored == locationsToVisit - 1);
+            final int roadsLeft = locationsToVisit - colored;
+            int nextSize = 0;
+
+            for (int index = 0; index < size; index++) {
+                final int state = states[index];
+                final int location = state % locations;
+                final int color = color(location);
+                final int colorSet = expand(state / locations, color);
+                final int length = distances[state];
+
+                distances[state] = RoadsNetwork.INFINITE_DISTANCE;
+                if (length + roadsLeft * lightestLength >= leastRoute)
+                    continue;
+
+                for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                    final int partialRoute = length + roadsNetwork.length(road);
+
+                    if (partialRoute + (roadsLeft - 1) * lightestLength >= leastRoute)
+                        break;
+
+                    final int neighbor = roadsNetwork.neighbor(road);
+                    final int neighborColor = color(neighbor);
+                    if ((colorSet & (1 << neighborColor)) != 0)
+                        continue;
+
+                    if (last) {
+                        leastRoute = partialRoute;
+                        break;
+                    }
+
+                    if (! isInner(neighbor))
+                        continue;
+
+                    final int next = compress(colorSet | (1 << neighborColor), neighborColor) * locations + neighbor;
+                    if (partialRoute < distances[next]) {
+                        if (distances[next] == RoadsNetwork.INFINITE_DISTANCE)
+                            nextStates = add(nextStates, nextSize++, next);
+                        distances[next] = partialRoute;
+                    }
+                }
+            }
+
+            final int[] swap = states;
+            states = nextStates;
+            nextStates = swap;
+            size = nextSize;
+        }
+    }
+
+    private boolean isInner(final int location) {
+        return roadsNetwork.lastRoad(location) - roadsNetwork.firstRoad(location) >= 2;
+    }
+
+    /**
+     *  Color of a location in the current trial, hashed from its id rather
+     *  than drawn for every location, as most trials only reach a few.
+     */
+    private int color(final int location) {
+        long hash = colorSeed + location;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return (int) (((hash & 0xffffffffL) * locationsToVisit) >>> 32);
+    }
+
+    /**
+     *  A state leaves out the color of its own location, always in its set.
+     */
+    private static int compress(final int colorSet, final int color) {
+        return ((colorSet >>> (color + 1)) << color) | (colorSet & ((1 << color) - 1));
+    }
+
+    private static int expand(final int compressed, final int color) {
+        return ((compressed >>> color) << (color + 1)) | (1 << color) | (compressed & ((1 << color) - 1));
+    }
+
+    private static int[] add(int[] states, final int size, final int state) {
+        if (size == states.length)
+            states = Arrays.copyOf(states, 2 * size);
+
+        states[size] = state;
+        return states;
+    }
+
+    /**
+     *  Trials needed for a route of K locations to be colorful at least once
+     *  but with FAILURE_PROBABILITY.
+     */
+    static int trials(final int locationsToVisit) {
+        double colorful = 1.0;
+
+        for (int location = 1; location <= locationsToVisit; location++)
+            colorful *= (double) location / locationsToVisit;
+
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(Math.log(FAILURE_PROBABILITY) / Math.log1p(-colorful)));
+    }
+
+}
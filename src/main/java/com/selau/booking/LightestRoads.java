@@ -0,0 +1,166 @@
+package com.selau.booking;
+
+import java.util.Arrays;
+
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Keeps, for every location, its two lightest roads leading to distinct
+ *  neighbors. The cheapest route through at least three locations always has
+ *  a middle location and two of its roads, so the answer is the least sum of
+ *  those two slots over all locations, found in O(N + M).
+ *
+ *  Parallel roads towards the same neighbor only keep the shortest one in a
+ *  slot, otherwise both slots could point to the same neighbor and describe a
+ *  route through two locations only.
+ */
+public class LightestRoads {
+
+    static final int NO_NEIGHBOR = -1;
+
+    private int locations;
+    private int[] lightestLength = new int[0];
+    private int[] lightestNeighbor = new int[0];
+    private int[] secondLength = new int[0];
+    private int[] secondNeighbor = new int[0];
+
+    public LightestRoads(final int locations) {
+        reset(locations);
+    }
+
+    public static LightestRoads of(final RoadsNetwork roadsNetwork) {
+        return new LightestRoads(roadsNetwork.locations()).addAll(roadsNetwork);
+    }
+
+    /**
+     *  Empties the slots of the first locations, growing the buffers only when
+     *  there are more locations than ever before.
+     */
+    public void reset(final int locations) {
+        if (locations < 0)
+            throw new IllegalArgumentException("Invalid negative number of locations.");
+
+        if (lightestLength.length < locations) {
+            lightestLength = new int[locations];
+            lightestNeighbor = new int[locations];
+            secondLength = new int[locations];
+            secondNeighbor = new int[locations];
+        }
+        this.locations = locations;
+
+        Arrays.fill(lightestLength, 0, locations, RoadsNetwork.INFINITE_DISTANCE);
+        Arrays.fill(lightestNeighbor, 0, locations, NO_NEIGHBOR);
+        Arrays.fill(secondLength, 0, locations, RoadsNetwork.INFINITE_DISTANCE);
+        Arrays.fill(secondNeighbor, 0, locations, NO_NEIGHBOR);
+    }
+
+    public LightestRoads addAll(final RoadsNetwork roadsNetwork) {
+        return addAll(roadsNetwork, 0, roadsNetwork.locations());
+    }
+
+    /**
+     *  Fills the slots of the locations in [fromLocation, toLocation) from
+     *  their own roads, so disjoint ranges can be filled concurrently.
+     */
+    public LightestRoads addAll(final RoadsNetwork roadsNetwork, final int fromLocation, final int toLocation) {
+        for (int location = fromLocation; location < toLocation; location++) {
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++)
+                add(location, roadsNetwork.neighbor(road), roadsNetwork.length(road));
+        }
+        return this;
+    }
+
+    /**
+     *  Adds the slots of other, filled from other roads of the same locations.
+     *  The two lightest roads of a location are among the slots of the parts
+     *  of its roads, so merging them gives the same slots as adding every road.
+     */
+    public LightestRoads addAll(final LightestRoads other) {
+        for (int location = 0; location < other.locations; location++) {
+            if (other.lightestNeighbor[location] != NO_NEIGHBOR)
+                add(location, other.lightestNeighbor[location], other.lightestLength[location]);
+            if (other.secondNeighbor[location] != NO_NEIGHBOR)
+                add(location, other.secondNeighbor[location], other.secondLength[location]);
+        }
+        return this;
+    }
+
+    public int locations() {
+        return locations;
+    }
+
+    public void add(final int location, final int neighbor, final int length) {
+        if (neighbor == lightestNeighbor[location]) {
+            if (length < lightestLength[location])
+                lightestLength[location] = length;
+
+        } else if (neighbor == secondNeighbor[location]) {
+            if (length < secondLength[location]) {
+                secondLength[location] = length;
+
+                if (length < lightestLength[location])
+                    swap(location);
+            }
+
+        } else if (length < lightestLength[location]) {
+            secondLength[location] = lightestLength[location];
+            secondNeighbor[location] = lightestNeighbor[location];
+            lightestLength[location] = length;
+            lightestNeighbor[location] = neighbor;
+
+        } else if (length < secondLength[location]) {
+            secondLength[location] = length;
+            secondNeighbor[location] = neighbor;
+        }
+    }
+
+    public int lightestLength(final int location) {
+        return lightestLength[location];
+    }
+
+    public int lightestNeighbor(final int location) {
+        return lightestNeighbor[location];
+    }
+
+    public int secondLength(final int location) {
+        return secondLength[location];
+    }
+
+    public int secondNeighbor(final int location) {
+        return secondNeighbor[location];
+    }
+
+    /**
+     *  @return the length of the cheapest route having location in the middle,
+     *  or INFINITE_DISTANCE when it has less than two distinct neighbors.
+     */
+    public int leastRouteThrough(final int location) {
+        if (secondNeighbor[location] == NO_NEIGHBOR)
+            return RoadsNetwork.INFINITE_DISTANCE;
+
+        return lightestLength[location] + secondLength[location];
+    }
+
+    public int leastRoute() {
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        for (int location = 0; location < locations; location++) {
+            final int route = leastRouteThrough(location);
+
+            if (route < leastRoute)
+                leastRoute = route;
+        }
+        return leastRoute;
+    }
+
+    private void swap(final int location) {
+        final int length = lightestLength[location];
+        final int neighbor = lightestNeighbor[location];
+
+        lightestLength[location] = secondLength[location];
+        lightestNeighbor[location] = secondNeighbor[location];
+        secondLength[location] = length;
+        secondNeighbor[location] = neighbor;
+    }
+
+}
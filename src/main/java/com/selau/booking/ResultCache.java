@@ -0,0 +1,181 @@
+package com.selau.booking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.selau.booking.metrics.SolverMetrics;
+
+/**
+ *  Remembers the answers of the last test cases solved, so a case seen again
+ *  is answered as soon as it is read, without building its network.
+ *
+ *  Cases are keyed by their content: the number of locations and the
+ *  multiset of their roads, each as (min(A, B), max(A, B), D) so the order
+ *  and direction of the roads do not matter. Instead of sorting the roads,
+ *  every road is hashed on its own and the hashes are summed, which gives the
+ *  same key in any order and is computed while the roads are read. Two
+ *  independent 64 bits sums plus the counts make a collision between
+ *  distinct cases negligible, though not impossible.
+ *
+ *  The cache is shared by the solvers of all threads and evicts the least
+ *  recently used answer beyond its capacity.
+ */
+public class ResultCache {
+
+    private final Map<CaseKey, Integer> answers;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public ResultCache(final int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Invalid cache capacity " + capacity + ".");
+
+        this.answers = new LinkedHashMap<CaseKey, Integer>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CaseKey, Integer> eldest) {
+                return size() > capacity;
+            }
+
+        };
+    }
+
+    /**
+     *  @return solver answering from this cache, solving with solver the cases
+     *  not in it yet.
+     */
+    public WeekendRouteSolver cached(final WeekendRouteSolver solver) {
+        return new CachedSolver(solver, this);
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return answers.size();
+    }
+
+    synchronized Integer get(final CaseKey key) {
+        final Integer answer = answers.get(key);
+
+        if (answer == null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+
+        SolverMetrics.cached(answer != null);
+        return answer;
+    }
+
+    synchronized void put(final CaseKey key, final int answer) {
+        answers.put(key, Integer.valueOf(answer));
+    }
+
+    /**
+     *  Hashes the roads while they are added to the solver, which is solved
+     *  only when the cache misses.
+     */
+    static class CachedSolver implements WeekendRouteSolver {
+
+        private final WeekendRouteSolver solver;
+        private final ResultCache cache;
+        private int locations;
+        private int roads;
+        private long hash;
+        private long otherHash;
+
+        CachedSolver(final WeekendRouteSolver solver, final ResultCache cache) {
+            this.solver = solver;
+            this.cache = cache;
+        }
+
+        @Override
+        public void reset(final int locations) {
+            solver.reset(locations);
+
+            this.locations = locations;
+            this.roads = 0;
+            this.hash = 0;
+            this.otherHash = 0;
+        }
+
+        @Override
+        public void addRoad(final int source, final int target, final int length) {
+            solver.addRoad(source, target, length);
+
+            final long road = ((long) Math.min(source, target) << 32) | Math.max(source, target);
+            roads++;
+            hash += mix(road * 0x9e3779b97f4a7c15L + length);
+            otherHash += mix((road ^ 0xc2b2ae3d27d4eb4fL) + length * 0x165667b19e3779f9L);
+        }
+
+        @Override
+        public int solve() {
+            final CaseKey key = new CaseKey(locations, roads, hash, otherHash);
+            final Integer cached = cache.get(key);
+
+            if (cached != null)
+                return cached.intValue();
+
+            final int answer = solver.solve();
+            cache.put(key, answer);
+            return answer;
+        }
+
+        /**
+         *  Finalizer of MurmurHash3.
+         */
+        private static long mix(final long value) {
+            long mixed = value;
+
+            mixed ^= mixed >>> 33;
+            mixed *= 0xff51afd7ed558ccdL;
+            mixed ^= mixed >>> 33;
+            mixed *= 0xc4ceb9fe1a85ec53L;
+            mixed ^= mixed >>> 33;
+
+            return mixed;
+        }
+
+    }
+
+    static class CaseKey {
+
+        private final int locations;
+        private final int roads;
+        private final long hash;
+        private final long otherHash;
+
+        CaseKey(final int locations, final int roads, final long hash, final long otherHash) {
+            this.locations = locations;
+            this.roads = roads;
+            this.hash = hash;
+            this.otherHash = otherHash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (! (object instanceof CaseKey))
+                return false;
+
+            final CaseKey other = (CaseKey) object;
+            return (locations == other.locations) && (roads == other.roads)
+                    && (hash == other.hash) && (otherHash == other.otherHash);
+        }
+
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.selau.booking;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Least route through three locations for every location of a network, so
+ *  that many queries against the same network are answered in O(1) each.
+ *
+ *  A location is in the middle of its least route through it when the route
+ *  takes its two lightest roads towards distinct neighbors, kept by
+ *  {@link LightestRoads}. A route starting at a location takes one of its
+ *  roads and then the lightest road of the neighbor not going back, which is
+ *  in one of the two slots of the neighbor. A route through a location has it
+ *  either in the middle or at one end, so it is the least of both.
+ *
+ *  Both passes only write the entries of their own locations, so they are
+ *  split in ranges of locations run on a fork/join pool.
+ */
+public class RouteIndex {
+
+    public static final int NO_LOCATION = -1;
+
+    private final RoadsNetwork roadsNetwork;
+    private final LightestRoads lightestRoads;
+    private final int[] startLength;
+    private final int[] startVia;
+    private final int[] startEnd;
+
+    private RouteIndex(final RoadsNetwork roadsNetwork) {
+        this.roadsNetwork = roadsNetwork;
+        this.lightestRoads = new LightestRoads(roadsNetwork.locations());
+        this.startLength = new int[roadsNetwork.locations()];
+        this.startVia = new int[roadsNetwork.locations()];
+        this.startEnd = new int[roadsNetwork.locations()];
+    }
+
+    public static RouteIndex build(final RoadsNetwork roadsNetwork, final ForkJoinPool pool) {
+        final RouteIndex routeIndex = new RouteIndex(roadsNetwork);
+
+        pool.invoke(new BuildTask(routeIndex, false, 0, roadsNetwork.locations()));
+        pool.invoke(new BuildTask(routeIndex, true, 0, roadsNetwork.locations()));
+        return routeIndex;
+    }
+
+    public int locations() {
+        return roadsNetwork.locations();
+    }
+
+    /**
+     *  @return the length of the least route starting at location, or
+     *  INFINITE_DISTANCE when there is none.
+     */
+    public int leastRouteFrom(final int location) {
+        return startLength[location];
+    }
+
+    /**
+     *  @return the second location of the least route starting at location.
+     */
+    public int leastRouteFromVia(final int location) {
+        return startVia[location];
+    }
+
+    /**
+     *  @return the last location of the least route starting at location.
+     */
+    public int leastRouteFromEnd(final int location) {
+        return startEnd[location];
+    }
+
+    /**
+     *  @return the length of the least route having location in the middle,
+     *  or INFINITE_DISTANCE when there is none.
+     */
+    public int leastRouteAround(final int location) {
+        return lightestRoads.leastRouteThrough(location);
+    }
+
+    public int leastRouteAroundFirst(final int location) {
+        return (leastRouteAround(location) == RoadsNetwork.INFINITE_DISTANCE) ? NO_LOCATION : lightestRoads.lightestNeighbor(location);
+    }
+
+    public int leastRouteAroundLast(final int location) {
+        return (leastRouteAround(location) == RoadsNetwork.INFINITE_DISTANCE) ? NO_LOCATION : lightestRoads.secondNeighbor(location);
+    }
+
+    /**
+     *  @return the length of the least route visiting location anywhere.
+     */
+    public int leastRouteThrough(final int location) {
+        return Math.min(leastRouteFrom(location), leastRouteAround(location));
+    }
+
+    private void indexLightestRoads(final int fromLocation, final int toLocation) {
+        lightestRoads.addAll(roadsNetwork, fromLocation, toLocation);
+    }
+
+    private void indexStarts(final int fromLocation, final int toLocation) {
+        Arrays.fill(startLength, fromLocation, toLocation, RoadsNetwork.INFINITE_DISTANCE);
+        Arrays.fill(startVia, fromLocation, toLocation, NO_LOCATION);
+        Arrays.fill(startEnd, fromLocation, toLocation, NO_LOCATION);
+
+        for (int location = fromLocation; location < toLocation; location++) {
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                final int firstLength = roadsNetwork.length(road);
+
+                if (firstLength + 1 >= startLength[location])
+                    break;
+
+                final int via = roadsNetwork.neighbor(road);
+                final boolean back = lightestRoads.lightestNeighbor(via) == location;
+                final int end = back ? lightestRoads.secondNeighbor(via) : lightestRoads.lightestNeighbor(via);
+
+                if (end == LightestRoads.NO_NEIGHBOR)
+                    continue;
+
+                final int length = firstLength + (back ? lightestRoads.secondLength(via) : lightestRoads.lightestLength(via));
+                if (length < startLength[location]) {
+                    startLength[location] = length;
+                    startVia[location] = via;
+                    startEnd[location] = end;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static class BuildTask extends RecursiveAction {
+
+        private static final int THRESHOLD = 1 << 12;
+
+        private final RouteIndex routeIndex;
+        private final boolean starts;
+        private final int fromLocation;
+        private final int toLocation;
+
+        BuildTask(final RouteIndex routeIndex, final boolean starts, final int fromLocation, final int toLocation) {
+            this.routeIndex = routeIndex;
+            this.starts = starts;
+            this.fromLocation = fromLocation;
+            this.toLocation = toLocation;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLocation - fromLocation > THRESHOLD) {
+                final int middleLocation = (fromLocation + toLocation) >>> 1;
+
+                invokeAll(new BuildTask(routeIndex, starts, fromLocation, middleLocation),
+                        new BuildTask(routeIndex, starts, middleLocation, toLocation));
+                return;
+            }
+
+            if (starts)
+                routeIndex.indexStarts(fromLocation, toLocation);
+            else
+                routeIndex.indexLightestRoads(fromLocation, toLocation);
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.selau.booking;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Answers batches of queries against a single network with a
+ *  {@link RouteIndex}.
+ *
+ *  The input is a network in the usual format, only its first test case is
+ *  used, followed by the number of queries and the queries themselves, each
+ *  made of a kind and a 1-based location. The queries can also come from the
+ *  file given by --queries. Every answer is the length of the route followed
+ *  by its three locations, or -1 when there is no such route.
+ */
+public class RouteQueries {
+
+    /** Least route starting at the location. */
+    static final int FROM = 1;
+
+    /** Least route having the location in the middle. */
+    static final int AROUND = 2;
+
+    /** Least route visiting the location anywhere. */
+    static final int THROUGH = 3;
+
+    public static void main(String[] args) throws IOException {
+        final Arguments arguments = Arguments.parse(args);
+        final String queriesPath = arguments.option("queries", null);
+        final ForkJoinPool pool = new ForkJoinPool(arguments.intOption("parallelism", Runtime.getRuntime().availableProcessors()));
+        final InputReader reader = arguments.openInput();
+        final OutputWriter writer = new OutputWriter(System.out);
+
+        reader.nextInt();
+        final RouteIndex routeIndex = RouteIndex.build(RoadsNetworkBuilder.read(reader).build(), pool);
+        pool.shutdown();
+
+        if (queriesPath == null) {
+            answer(routeIndex, reader, writer);
+        } else {
+            final InputReader queries = InputReader.open(queriesPath);
+            answer(routeIndex, queries, writer);
+            queries.close();
+        }
+        writer.flush();
+        reader.close();
+    }
+
+    static void answer(final RouteIndex routeIndex, final InputReader reader, final OutputWriter writer) throws IOException {
+        final int queries = reader.nextInt();
+
+        for (int query = 0; query < queries; query++) {
+            final int kind = reader.nextInt();
+            final int location = reader.nextInt() - 1;
+
+            if ((location < 0) || (location >= routeIndex.locations()))
+                throw new IllegalArgumentException("Invalid location " + (location + 1) + " in query " + (query + 1) + ".");
+
+            switch (kind) {
+            case FROM:
+                printFrom(routeIndex, location, writer);
+                break;
+            case AROUND:
+                printAround(routeIndex, location, writer);
+                break;
+            case THROUGH:
+                if (routeIndex.leastRouteFrom(location) <= routeIndex.leastRouteAround(location))
+                    printFrom(routeIndex, location, writer);
+                else
+                    printAround(routeIndex, location, writer);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid kind " + kind + " of query " + (query + 1) + ".");
+            }
+        }
+    }
+
+    private static void printFrom(final RouteIndex routeIndex, final int location, final OutputWriter writer) throws IOException {
+        print(routeIndex.leastRouteFrom(location), location, routeIndex.leastRouteFromVia(location), routeIndex.leastRouteFromEnd(location), writer);
+    }
+
+    private static void printAround(final RouteIndex routeIndex, final int location, final OutputWriter writer) throws IOException {
+        print(routeIndex.leastRouteAround(location), routeIndex.leastRouteAroundFirst(location), location, routeIndex.leastRouteAroundLast(location), writer);
+    }
+
+    private static void print(final int length, final int first, final int second, final int third, final OutputWriter writer) throws IOException {
+        if (length == RoadsNetwork.INFINITE_DISTANCE) {
+            writer.println(-1);
+            return;
+        }
+
+        writer.print(length);
+        writer.print(' ');
+        writer.print(first + 1);
+        writer.print(' ');
+        writer.print(second + 1);
+        writer.print(' ');
+        writer.println(third + 1);
+    }
+
+}
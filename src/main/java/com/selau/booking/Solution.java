@@ -1,11 +1,18 @@
 package com.selau.booking;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Scanner;
-import java.util.Set;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.metrics.SolverMetrics;
+import com.selau.booking.network.OffHeapRoadsNetworkBuilder;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+import com.selau.booking.network.RoadsNetworkSnapshot;
+import com.selau.booking.shard.ShardedSolver;
 
 
 public class Solution {
@@ -13,302 +20,688 @@ public class Solution {
     static Integer INFINITE_DISTANCE = Integer.valueOf(Integer.MAX_VALUE);
     static Integer NO_DISTANCE = Integer.valueOf(0);
 
-    public static void main(String[] args) {
-    	final Scanner scanner = new Scanner(System.in);
-        final int cases = scanner.nextInt();
+    public static void main(String[] args) throws IOException {
+    	final Arguments arguments = Arguments.parse(args);
+    	final Strategy strategy = arguments.enumOption("strategy", Strategy.class, Strategy.PRIORITY_QUEUE);
+    	final int workers = arguments.intOption("workers", 1);
+    	final int locationsToVisit = arguments.intOption("visit", 3);
+    	final boolean offHeap = Boolean.parseBoolean(arguments.option("off-heap", "false"));
+    	final boolean metrics = Boolean.parseBoolean(arguments.option("metrics", "false"));
+    	
+    	if (offHeap && (strategy == Strategy.STREAMING))
+    		throw new IllegalArgumentException("Option --off-heap keeps every road, unlike --strategy=streaming.");
+    	arguments.rejectCombined("budget", "strategy", "parallelism", "workers", "visit", "off-heap", "cache", "shards", "shard-jvm-options", 
+    			"serve", "snapshot");
+    	arguments.rejectCombined("shards", "strategy", "parallelism", "workers", "visit", "off-heap", "cache", "serve", "snapshot");
+    	
+    	if (metrics)
+    		SolverMetrics.enable();
+    	if (Boolean.parseBoolean(arguments.option("jmx", "false")))
+    		SolverMetrics.register();
+    	final ForkJoinPool pool = (strategy == Strategy.FORK_JOIN) 
+    			? new ForkJoinPool(arguments.intOption("parallelism", Runtime.getRuntime().availableProcessors())) : null;
+    	final String snapshot = arguments.option("snapshot", null);
+    	final String serve = arguments.option("serve", null);
+    	final int cacheSize = arguments.intOption("cache", 0);
+    	final long budget = arguments.longOption("budget", -1);
+    	final int shards = arguments.intOption("shards", 0);
+    	final String shardOptions = arguments.option("shard-jvm-options", null);
+    	final ResultCache cache = (cacheSize > 0) ? new ResultCache(cacheSize) : null;
+    	final OutputWriter writer = new OutputWriter(System.out);
+    	final WeekendRouteSolver.Factory factory = new WeekendRouteSolver.Factory() {
+    		
+			@Override
+			public WeekendRouteSolver create() {
+				final WeekendRouteSolver solver;
+				if (offHeap)
+					solver = new OffHeapSolver(strategy, pool, locationsToVisit);
+				else
+					solver = (locationsToVisit == 3) ? newSolver(strategy, pool) : new LeastRouteSolver(locationsToVisit);
+				
+				return (cache != null) ? cache.cached(solver) : solver;
+			}
+			
+		};
+        
+    	if (serve != null) {
+    		final int threads = arguments.intOption("workers", Runtime.getRuntime().availableProcessors());
+    		final SolverServer server = new SolverServer(arguments.intOption("serve", 0), threads, arguments.intOption("queue", 4 * threads), 
+    				arguments.intOption("connections", 4 * threads), CasePipeline.pooled(factory), metrics ? System.err : null);
+    		
+    		if (metrics) {
+	    		Runtime.getRuntime().addShutdownHook(new Thread() {
+	    			
+	    			@Override
+	    			public void run() {
+	    				SolverMetrics.printSummary(System.err);
+	    			}
+	    			
+	    		});
+    		}
+    		System.err.println("Listening on port " + server.port() + ".");
+    		server.serve();
+    	} else if (budget >= 0) {
+    		final InputReader reader = arguments.openInput();
+    		final AnytimeSolver solver = new AnytimeSolver(budget * 1000000L);
+    		final int cases = reader.nextInt();
+    		
+    		for (int weekendCase = 1; weekendCase <= cases; weekendCase++) {
+    			final long parseStart = SolverMetrics.start();
+    			WeekendRouteSolvers.read(reader, solver);
+    			SolverMetrics.parsed(parseStart);
+    			
+    			final long solveStart = SolverMetrics.startSolve();
+    			final int leastRoute = solver.solve();
+    			SolverMetrics.solved(solveStart);
+    			
+    			writer.print(leastRoute);
+    			writer.print(' ');
+    			writer.println(solver.lowerBound());
+    		}
+    		reader.close();
+    	} else if (shards > 0) {
+    		final ShardedSolver solver = newShardedSolver(shards, shardOptions);
+    		
+    		Runtime.getRuntime().addShutdownHook(new Thread() {
+    			
+    			@Override
+    			public void run() {
+    				try {
+    					solver.close();
+    				} catch (final IOException e) {
+    					// The workers exit anyway once the pipes of this process are gone.
+    				}
+    			}
+    			
+    		});
+    		try {
+    			if (arguments.inputPath() != null) {
+    				solver.solveAll(arguments.inputPath(), writer);
+    			} else {
+    				final InputReader reader = arguments.openInput();
+    				
+    				CasePipeline.run(reader, writer, 1, CasePipeline.pooled(new WeekendRouteSolver.Factory() {
+    					
+    					@Override
+    					public WeekendRouteSolver create() {
+    						return solver;
+    					}
+    					
+    				}));
+    				reader.close();
+    			}
+    		} finally {
+    			solver.close();
+    		}
+    	} else if (snapshot != null) {
+    		final long loadStart = SolverMetrics.start();
+    		final RoadsNetwork roadsNetwork = RoadsNetworkSnapshot.load(snapshot);
+    		SolverMetrics.parsed(loadStart);
+    		
+    		final long solveStart = SolverMetrics.startSolve();
+    		writer.println((locationsToVisit == 3) ? calculateLeastDistanceWith2Hops(roadsNetwork, strategy, pool) 
+    				: new LeastRouteSearch(roadsNetwork, locationsToVisit).leastRoute());
+    		SolverMetrics.solved(solveStart);
+    	} else {
+    		final InputReader reader = arguments.openInput();
+    		
+	        CasePipeline.run(reader, writer, workers, CasePipeline.pooled(factory));
+	        reader.close();
+    	}
+        writer.flush();
         
-        for (int weekendCase = 1; weekendCase <= cases; weekendCase++) {
-        	final int locations = scanner.nextInt();
-            final int roads = scanner.nextInt();
-            
-            final int leastDistanceWith2Hops = calculateLeastDistanceWith2Hops(scanner, locations, roads);
-        	
-            System.out.println(leastDistanceWith2Hops);
-        }
-        scanner.close();
+        if (metrics)
+        	SolverMetrics.printSummary(System.err);
+        
+        if (pool != null)
+        	pool.shutdown();
     }
 
-	private static int calculateLeastDistanceWith2Hops(final Scanner scanner, final int locations, final int roads) {
-		final PriorityQueue<Node> nodes = new PriorityQueue<Node>();
-		final Node locationsArray[] = new Location[locations];
-		
-		for (int locationCount = 0; locationCount < locations; locationCount++) {
-			final Location location = new Location(Integer.toString(locationCount +1), INFINITE_DISTANCE);
+    private static ShardedSolver newShardedSolver(final int shards, final String jvmOptions) {
+    	try {
+    		return new ShardedSolver(shards, (jvmOptions != null) ? jvmOptions.split(" ") : new String[0]);
+    	} catch (final IOException e) {
+    		throw new IllegalStateException("Unable to start the shard workers.", e);
+    	}
+    }
+
+    /**
+     *  Engines available to find the least distance through three locations.
+     */
+    public enum Strategy {
+    	
+    	/** Scans 2 hops from every location in order of their lightest road, counting sorted by length, stopping once no better route is possible. */
+    	PRIORITY_QUEUE,
+    	
+    	/** Keeps the two lightest roads of every location and picks the best middle location in O(N + M). */
+    	LIGHTEST_ROADS,
+    	
+    	/** Scans 2 hops from every location on a fork/join pool, sharing the best route found as pruning bound. */
+    	FORK_JOIN,
+    	
+    	/** Updates the two lightest roads of both ends as every road is read and drops it, in O(N) memory. */
+    	STREAMING
+    	
+    }
+
+    /**
+     *  @param pool runs the FORK_JOIN strategy, unused by the others.
+     */
+    public static WeekendRouteSolver newSolver(final Strategy strategy, final ForkJoinPool pool) {
+		switch (strategy) {
+		case LIGHTEST_ROADS:
+			return new LightestRoadsSolver();
+		case FORK_JOIN:
+			return new ForkJoinSolver(pool);
+		case STREAMING:
+			return new StreamingSolver();
+		default:
+			return new PriorityQueueSolver();
+		}
+	}
+
+    /**
+     *  Orders the locations by their lightest road with a counting sort once
+     *  the network is built, then scans 2 hops from them in this order.
+     */
+    public static class PriorityQueueSolver implements WeekendRouteSolver {
+    	
+    	final RoadsNetworkBuilder roads = new RoadsNetworkBuilder();
+    	int[] order = new int[0];
+
+		@Override
+		public void reset(final int locations) {
+			roads.reset(locations);
 			
-			locationsArray[locationCount] = location;
-			nodes.add(location);
+			if (order.length < locations)
+				order = new int[locations];
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			roads.addRoad(source, target, length);
+		}
+
+		@Override
+		public int solve() {
+			final RoadsNetwork roadsNetwork = roads.build();
+			return calculateLeastDistanceWith2Hops(roadsNetwork, order, sortByLightestRoad(roadsNetwork, order));
+		}
+    	
+    }
+
+    /**
+     *  Runs the 2 hops scan of PriorityQueueSolver until a time budget runs
+     *  out, then answers the least route found so far together with a proven
+     *  lower bound of the least one.
+     *
+     *  A route not found yet has both ends among the locations not scanned,
+     *  and each end reaches the middle location by a road at least as long as
+     *  its lightest one, so the route is at least twice the lightest road of
+     *  the next location in order. The scan stops as soon as that bound
+     *  reaches the route found, which is then exact, so a large enough budget gives the
+     *  same answer as PriorityQueueSolver, often with fewer locations polled.
+     *  
+     *  The route is seeded, whatever the budget, by the two lightest roads of
+     *  the first location in order leading to distinct neighbors. That one is
+     *  usually among the first few, and some location has two distinct
+     *  neighbors whenever a route exists, so the seed is finite then.
+     */
+    public static class AnytimeSolver extends PriorityQueueSolver {
+    	
+    	private final long budgetNanos;
+    	private int leastDistance;
+    	private int lowerBound;
+    	
+    	/**
+    	 *  @param budgetNanos time allowed to solve(), building the network
+    	 *  included.
+    	 */
+    	public AnytimeSolver(final long budgetNanos) {
+    		if (budgetNanos < 0)
+    			throw new IllegalArgumentException("Invalid negative budget " + budgetNanos + ".");
+    		
+    		this.budgetNanos = budgetNanos;
+    	}
+
+		/**
+		 *  @return the least route found before the budget ran out, or
+		 *  INFINITE_DISTANCE when there is none.
+		 */
+		@Override
+		public int solve() {
+			final long deadline = System.nanoTime() + budgetNanos;
+			final RoadsNetwork roadsNetwork = roads.build();
+			final int connected = sortByLightestRoad(roadsNetwork, order);
+			final long[] scanned = new long[1];
+			int polled = 0;
+			
+			int leastDistanceWith2Hops = firstRoute(roadsNetwork, connected);
+			
+			// Without a seed no location has two distinct neighbors, which proves there is no route.
+			lowerBound = (leastDistanceWith2Hops == INFINITE_DISTANCE) ? INFINITE_DISTANCE 
+					: lowerBound(roadsNetwork, polled, connected, leastDistanceWith2Hops);
+			while (lowerBound < leastDistanceWith2Hops) {
+				if (System.nanoTime() - deadline >= 0)
+					break;
+				
+				final int firstLocation = order[polled++];
+				final int least2HopsCostForLocation = calculateLeast2HopsCost(roadsNetwork, firstLocation, leastDistanceWith2Hops, scanned);
+				
+				if (least2HopsCostForLocation < leastDistanceWith2Hops)
+					leastDistanceWith2Hops = least2HopsCostForLocation;
+				
+				lowerBound = lowerBound(roadsNetwork, polled, connected, leastDistanceWith2Hops);
+			}
+			
+			if (SolverMetrics.enabled()) {
+				SolverMetrics.polled(polled);
+				SolverMetrics.pruned(connected - polled);
+				SolverMetrics.scanned(scanned[0]);
+			}
+			leastDistance = leastDistanceWith2Hops;
+			return leastDistanceWith2Hops;
+		}
+		
+		/**
+		 *  @return the lower bound of the least route proven by the last
+		 *  solve(), equal to its answer when that one is exact.
+		 */
+		public int lowerBound() {
+			return lowerBound;
+		}
+		
+		/**
+		 *  @return whether the last solve() answered the least route.
+		 */
+		public boolean isExact() {
+			return lowerBound == leastDistance;
 		}
 		
-		final Map<RoadConnection, Integer> distances = new HashMap<RoadConnection, Integer>();
-		final Map<Node, Set<Node>> adjacents = new HashMap<Node, Set<Node>>();
+		/**
+		 *  @return the route through the first location in order having two
+		 *  distinct neighbors, by its lightest roads, or INFINITE_DISTANCE
+		 *  when no location has.
+		 */
+		private int firstRoute(final RoadsNetwork roadsNetwork, final int connected) {
+			for (int index = 0; index < connected; index++) {
+				final int lightestRoad = roadsNetwork.firstRoad(order[index]);
+				
+				for (int road = lightestRoad + 1; road < roadsNetwork.lastRoad(order[index]); road++) {
+					if (roadsNetwork.neighbor(road) != roadsNetwork.neighbor(lightestRoad))
+						return roadsNetwork.length(lightestRoad) + roadsNetwork.length(road);
+				}
+			}
+			return INFINITE_DISTANCE;
+		}
 		
-		for (int road = 0; road < roads; road++) {
-			final int source = scanner.nextInt();
-			final int target = scanner.nextInt();
-			final int distance = scanner.nextInt();
+		private int lowerBound(final RoadsNetwork roadsNetwork, final int polled, final int connected, final int leastDistanceWith2Hops) {
+			if (polled == connected)
+				return leastDistanceWith2Hops;
 			
-			Node sourceNode = locationsArray[source-1];
-			Node targetNode = locationsArray[target-1];
+			return Math.min(leastDistanceWith2Hops, 2 * roadsNetwork.length(roadsNetwork.firstRoad(order[polled])));
+		}
+    	
+    }
+
+    public static class LightestRoadsSolver implements WeekendRouteSolver {
+    	
+    	private final RoadsNetworkBuilder roads = new RoadsNetworkBuilder();
+    	private final LightestRoads lightestRoads = new LightestRoads(0);
+
+		@Override
+		public void reset(final int locations) {
+			roads.reset(locations);
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			roads.addRoad(source, target, length);
+		}
+
+		@Override
+		public int solve() {
+			final RoadsNetwork roadsNetwork = roads.build();
 			
-			if (distance < sourceNode.leastDistance()) {
-				nodes.remove(sourceNode);
-				sourceNode = new Location(sourceNode.name(), distance);
-				locationsArray[source-1] = sourceNode;
-				nodes.add(sourceNode);
-			}
+			lightestRoads.reset(roadsNetwork.locations());
+			return lightestRoads.addAll(roadsNetwork).leastRoute();
+		}
+    	
+    }
+
+    /**
+     *  Same answer as LightestRoadsSolver without keeping the roads: the slots
+     *  of both ends are updated as soon as a road is added, so the memory only
+     *  depends on the number of locations and a test case with more roads than
+     *  fit in the heap can be solved in one pass over the input.
+     */
+    public static class StreamingSolver implements WeekendRouteSolver {
+    	
+    	private final LightestRoads lightestRoads = new LightestRoads(0);
+
+		@Override
+		public void reset(final int locations) {
+			lightestRoads.reset(locations);
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			RoadsNetworkBuilder.validateRoad(lightestRoads.locations(), source, target, length);
 			
-			if (distance < targetNode.leastDistance()) {
-				nodes.remove(targetNode);
-				targetNode = new Location(targetNode.name(), distance);
-				locationsArray[target-1] = targetNode;
-				nodes.add(targetNode);
+			if (source != target) {
+				lightestRoads.add(source, target, length);
+				lightestRoads.add(target, source, length);
 			}
+		}
+
+		@Override
+		public int solve() {
+			return lightestRoads.leastRoute();
+		}
+    	
+    }
+
+    /**
+     *  Least route through at least a given number of locations, found by a
+     *  {@link LeastRouteSearch}.
+     */
+    public static class LeastRouteSolver implements WeekendRouteSolver {
+    	
+    	private final LeastRouteSearch search;
+    	private final RoadsNetworkBuilder roads = new RoadsNetworkBuilder();
+    	
+    	public LeastRouteSolver(final int locationsToVisit) {
+    		this.search = new LeastRouteSearch(locationsToVisit);
+    	}
+
+		@Override
+		public void reset(final int locations) {
+			roads.reset(locations);
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			roads.addRoad(source, target, length);
+		}
+
+		@Override
+		public int solve() {
+			return search.reset(roads.build()).leastRoute();
+		}
+    	
+    }
+
+    /**
+     *  Keeps the roads and the network outside of the heap, then solves the
+     *  network with any strategy, or searches routes through more locations.
+     */
+    public static class OffHeapSolver implements WeekendRouteSolver {
+    	
+    	private final Strategy strategy;
+    	private final ForkJoinPool pool;
+    	private final int locationsToVisit;
+    	private final OffHeapRoadsNetworkBuilder roads = new OffHeapRoadsNetworkBuilder();
+    	private final LightestRoads lightestRoads = new LightestRoads(0);
+    	private final LeastRouteSearch search;
+    	private int[] buffer = new int[0];
+    	
+    	public OffHeapSolver(final Strategy strategy, final ForkJoinPool pool, final int locationsToVisit) {
+    		this.strategy = strategy;
+    		this.pool = pool;
+    		this.locationsToVisit = locationsToVisit;
+    		this.search = new LeastRouteSearch(locationsToVisit);
+    	}
+
+		@Override
+		public void reset(final int locations) {
+			roads.reset(locations);
 			
-		    Set<Node> sourceNodeAdjacents = adjacents.get(sourceNode);
-		    if (sourceNodeAdjacents == null) {
-		    	sourceNodeAdjacents = new HashSet<Node>();
-		    	adjacents.put(sourceNode, sourceNodeAdjacents);
-		    }
-		    
-		    Set<Node> targetNodeAdjacents = adjacents.get(targetNode);
-		    if (targetNodeAdjacents == null) {
-		    	targetNodeAdjacents = new HashSet<Node>();
-		    	adjacents.put(targetNode, targetNodeAdjacents);
-		    }
-
-		    sourceNodeAdjacents.add(targetNode);
-		    targetNodeAdjacents.add(sourceNode);
-
-		    distances.put(new RoadConnection(sourceNode, targetNode), Integer.valueOf(distance));
-		    distances.put(new RoadConnection(targetNode, sourceNode), Integer.valueOf(distance));
+			if (buffer.length < locations)
+				buffer = new int[locations];
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			roads.addRoad(source, target, length);
+		}
+
+		/**
+		 *  Reuses the heap buffers of the previous cases, so only the
+		 *  network lives in memory growing with the roads.
+		 */
+		@Override
+		public int solve() {
+			final RoadsNetwork roadsNetwork = roads.build();
+			
+			return (locationsToVisit == 3) ? calculateLeastDistanceWith2Hops(roadsNetwork, strategy, pool, buffer, lightestRoads) 
+					: search.reset(roadsNetwork).leastRoute();
+		}
+    	
+    }
+
+    public static class ForkJoinSolver implements WeekendRouteSolver {
+    	
+    	private final ForkJoinPool pool;
+    	private final RoadsNetworkBuilder roads = new RoadsNetworkBuilder();
+    	private int[] leastDistances = new int[0];
+    	
+    	public ForkJoinSolver(final ForkJoinPool pool) {
+    		if (pool == null)
+    			throw new IllegalArgumentException("Invalid null fork/join pool.");
+    		
+    		this.pool = pool;
+    	}
+
+		@Override
+		public void reset(final int locations) {
+			roads.reset(locations);
+			
+			if (leastDistances.length < locations)
+				leastDistances = new int[locations];
+		}
+
+		@Override
+		public void addRoad(final int source, final int target, final int length) {
+			roads.addRoad(source, target, length);
+		}
+
+		@Override
+		public int solve() {
+			return calculateLeastDistanceWith2Hops(roads.build(), leastDistances, pool);
+		}
+    	
+    }
+
+    /**
+     *  Solves an already built network, such as a loaded snapshot, with the
+     *  given strategy.
+     */
+    public static int calculateLeastDistanceWith2Hops(final RoadsNetwork roadsNetwork, final Strategy strategy, final ForkJoinPool pool) {
+    	return calculateLeastDistanceWith2Hops(roadsNetwork, strategy, pool, new int[roadsNetwork.locations()], new LightestRoads(0));
+    }
+
+    /**
+     *  @param buffer at least one slot per location, holding their order or
+     *  their lightest road depending on the strategy.
+     */
+    static int calculateLeastDistanceWith2Hops(final RoadsNetwork roadsNetwork, final Strategy strategy, final ForkJoinPool pool, 
+    		final int[] buffer, final LightestRoads lightestRoads) {
+    	switch (strategy) {
+    	case LIGHTEST_ROADS:
+    	case STREAMING:
+    		lightestRoads.reset(roadsNetwork.locations());
+    		return lightestRoads.addAll(roadsNetwork).leastRoute();
+    	case FORK_JOIN:
+    		return calculateLeastDistanceWith2Hops(roadsNetwork, buffer, pool);
+    	default:
+    		return calculateLeastDistanceWith2Hops(roadsNetwork, buffer, sortByLightestRoad(roadsNetwork, buffer));
+    	}
+    }
+
+	static int calculateLeastDistanceWith2Hops(final RoadsNetwork roadsNetwork, final int[] leastDistances, final ForkJoinPool pool) {
+		for (int location = 0; location < roadsNetwork.locations(); location++) {
+			int leastDistance = INFINITE_DISTANCE;
+			
+			for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+				if (roadsNetwork.length(road) < leastDistance)
+					leastDistance = roadsNetwork.length(road);
+			}
+			leastDistances[location] = leastDistance;
 		}
-		final RoadsNetwork roadsNetwork = new RoadsNetwork(distances, adjacents);
+		
+		final AtomicInteger leastDistanceWith2Hops = new AtomicInteger(INFINITE_DISTANCE);
+		pool.invoke(new Least2HopsCostTask(roadsNetwork, leastDistances, leastDistanceWith2Hops, 0, roadsNetwork.locations()));
+		
+		return leastDistanceWith2Hops.get();
+	}
+
+	/**
+	 *  Counting sort of the locations having roads by the length of their
+	 *  lightest one, which is their first road once built. Lengths are at most
+	 *  MAX_LENGTH, so this is O(N + MAX_LENGTH).
+	 *
+	 *  @return the number of locations sorted into order.
+	 */
+	static int sortByLightestRoad(final RoadsNetwork roadsNetwork, final int[] order) {
+		final int[] firstWithLength = new int[RoadsNetwork.MAX_LENGTH + 2];
+		int connected = 0;
+		
+		for (int location = 0; location < roadsNetwork.locations(); location++) {
+			if (roadsNetwork.firstRoad(location) < roadsNetwork.lastRoad(location)) {
+				firstWithLength[roadsNetwork.length(roadsNetwork.firstRoad(location)) + 1]++;
+				connected++;
+			}
+		}
+		for (int length = 0; length <= RoadsNetwork.MAX_LENGTH; length++)
+			firstWithLength[length + 1] += firstWithLength[length];
+		
+		for (int location = 0; location < roadsNetwork.locations(); location++) {
+			if (roadsNetwork.firstRoad(location) < roadsNetwork.lastRoad(location))
+				order[firstWithLength[roadsNetwork.length(roadsNetwork.firstRoad(location))]++] = location;
+		}
+		return connected;
+	}
+
+	/**
+	 *  Scans 2 hops from the first locations of order, sorted by their lightest
+	 *  road, until that road alone is longer than the least route found.
+	 */
+	static int calculateLeastDistanceWith2Hops(final RoadsNetwork roadsNetwork, final int[] order, final int connected) {
+		final long[] scanned = new long[1];
 		int leastDistanceWith2Hops = INFINITE_DISTANCE;
+		int polled = 0;
 		
-		while (! nodes.isEmpty()) {
-			final Node firstLocation = nodes.poll();
+		while (polled < connected) {
+			final int firstLocation = order[polled];
 			
-			if (firstLocation.leastDistance() > leastDistanceWith2Hops) {
-				return leastDistanceWith2Hops;
+			if (roadsNetwork.length(roadsNetwork.firstRoad(firstLocation)) > leastDistanceWith2Hops) {
+				break;
 			}
-			
-			final int least2HopsCostForLocation = calculateLeast2HopsCost(roadsNetwork, firstLocation, leastDistanceWith2Hops);
+			polled++;
+			final int least2HopsCostForLocation = calculateLeast2HopsCost(roadsNetwork, firstLocation, leastDistanceWith2Hops, scanned);
 			
 			if (least2HopsCostForLocation < leastDistanceWith2Hops) {
 				leastDistanceWith2Hops = least2HopsCostForLocation;
 			}
 		}
+		
+		if (SolverMetrics.enabled()) {
+			SolverMetrics.polled(polled);
+			SolverMetrics.pruned(connected - polled);
+			SolverMetrics.scanned(scanned[0]);
+		}
 		return leastDistanceWith2Hops;
 	}
     
-    private static int calculateLeast2HopsCost(RoadsNetwork roadsNetwork, Node location, int partialLeastDistanceWith2Hops) {
+    /**
+     *  @param scanned one slot adding up the roads scanned, published by the
+     *  caller once per search.
+     */
+    private static int calculateLeast2HopsCost(RoadsNetwork roadsNetwork, int location, int partialLeastDistanceWith2Hops, long[] scanned) {
     	int least2HopsCostForLocation = INFINITE_DISTANCE;
     	
-    	for (final Node firstNeighbour : roadsNetwork.neighbors(location)) {
-    		final int firstNeighbourCost = roadsNetwork.distance(location, firstNeighbour);
+    	for (int firstRoad = roadsNetwork.firstRoad(location); firstRoad < roadsNetwork.lastRoad(location); firstRoad++) {
+    		final int firstNeighbour = roadsNetwork.neighbor(firstRoad);
+    		final int firstNeighbourCost = roadsNetwork.length(firstRoad);
     		
     		if (firstNeighbourCost < partialLeastDistanceWith2Hops) {
-	    		for (final Node secondNeighbour : roadsNetwork.neighbors(firstNeighbour)) {
-	        		final int cost = firstNeighbourCost + roadsNetwork.distance(firstNeighbour, secondNeighbour);
+    			scanned[0] += roadsNetwork.lastRoad(firstNeighbour) - roadsNetwork.firstRoad(firstNeighbour);
+    			
+	    		for (int secondRoad = roadsNetwork.firstRoad(firstNeighbour); secondRoad < roadsNetwork.lastRoad(firstNeighbour); secondRoad++) {
+	        		final int cost = firstNeighbourCost + roadsNetwork.length(secondRoad);
 	        		
-	        		if ((cost < least2HopsCostForLocation) && (! secondNeighbour.equals(location))) {
+	        		if ((cost < least2HopsCostForLocation) && (roadsNetwork.neighbor(secondRoad) != location)) {
 	        			least2HopsCostForLocation = cost;
 	    			}
 	        	}
     		}
     	}
+    	
 		return least2HopsCostForLocation;
 	}
 
-	interface Node extends Comparable<Node> {
+    /**
+     *  Evaluates the 2 hops cost of a range of location ids, splitting it in
+     *  halves until it is small enough. Every task reads the best route found
+     *  so far by any worker as pruning bound and lowers it atomically, so the
+     *  result is the same minimum as the sequential scan.
+     */
+    @SuppressWarnings("serial")
+	static class Least2HopsCostTask extends RecursiveAction {
     	
-        String name();
-        
-        int leastDistance();
-        
-    }
-    
-	static class RoadsNetwork {
-
-        private final Map<RoadConnection, Integer> distances;
-        private final Map<Node, Set<Node>> adjacents;
-
-        public RoadsNetwork(
-                final Map<RoadConnection, Integer> distances,
-                final Map<Node, Set<Node>> adjacentTowns) {
-
-            this.distances = distances;
-            this.adjacents = adjacentTowns;
-        }
-
-        public Set<Node> neighbors(Node node) {
-            final Set<Node> neighbors = this.adjacents.get(node);
-            
-            if (neighbors == null)
-            	return new HashSet<Node>();
-			return neighbors;
-        }
-
-        public Integer distance(Node source, Node target) {
-            final RoadConnection edge = new RoadConnection(source, target);
-            return this.distances.get(edge);
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((adjacents == null) ? 0 : adjacents.hashCode());
-            result = prime * result + ((distances == null) ? 0 : distances.hashCode());
-            return result;
-        }
-
-        @Override
-        public boolean equals(final Object obj) {
-            if (this == obj)
-                return true;
-            if (obj == null)
-                return false;
-            if (!(obj instanceof RoadsNetwork))
-                return false;
-            RoadsNetwork other = (RoadsNetwork) obj;
-            if (adjacents == null) {
-                if (other.adjacents != null)
-                    return false;
-            } else if (!adjacents.equals(other.adjacents))
-                return false;
-            if (distances == null) {
-                if (other.distances != null)
-                    return false;
-            } else if (!distances.equals(other.distances))
-                return false;
-            return true;
-        }
-
-        @Override
-        public String toString() {
-            return "RoadsNetwork [distances=" + distances + ", adjacents=" + adjacents + "]";
-        }
-
-    }
-    
-    static class RoadConnection {
-
-        private final Node from;
-        private final Node to;
-
-        public RoadConnection(final Node from, final Node to) {
-            this.from = from;
-            this.to = to;
-        }
-
-        public Node from() {
-            return from;
-        }
-
-        public Node to() {
-            return to;
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((from == null) ? 0 : from.hashCode());
-            result = prime * result + ((to == null) ? 0 : to.hashCode());
-            return result;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj)
-                return true;
-            if (obj == null)
-                return false;
-            if (!(obj instanceof RoadConnection))
-                return false;
-            RoadConnection other = (RoadConnection) obj;
-            if (from == null) {
-                if (other.from != null)
-                    return false;
-            } else if (!from.equals(other.from))
-                return false;
-            if (to == null) {
-                if (other.to != null)
-                    return false;
-            } else if (!to.equals(other.to))
-                return false;
-            return true;
-        }
-
-        @Override
-        public String toString() {
-            return "RoadConnection [from=" + from + ", to=" + to + "]";
-        }
-
-    }
-    
-    static class Location implements Node {
-
-        private final String name;
-        private final int leastDistance;
-
-        public Location(final String name, final int leastDistance) {
-            this.name = name;
-            this.leastDistance = leastDistance;
-        }
-
-        @Override
-        public String name() {
-            return this.name;
-        }
-        
-        @Override
-        public int leastDistance() {
-        	return leastDistance;
-        }
-        
-        @Override
-        public int compareTo(final Node other) {
-
-            if (this.leastDistance == other.leastDistance())
-                return 0;
-
-            if (other.leastDistance() > this.leastDistance)
-                return -1;
-
-            return 1;
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((name == null) ? 0 : name.hashCode());
-            return result;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj)
-                return true;
-            if (obj == null)
-                return false;
-            if (!(obj instanceof Location))
-                return false;
-            Location other = (Location) obj;
-            if (name == null) {
-                if (other.name != null)
-                    return false;
-            } else if (!name.equals(other.name))
-                return false;
-            return true;
-        }
-
-        @Override
-        public String toString() {
-            return "Location [name=" + name + "]";
-        }
+    	static final int THRESHOLD = 1 << 10;
+    	
+    	private final RoadsNetwork roadsNetwork;
+    	private final int[] leastDistances;
+    	private final AtomicInteger leastDistanceWith2Hops;
+    	private final int fromLocation;
+    	private final int toLocation;
+    	
+		Least2HopsCostTask(final RoadsNetwork roadsNetwork, final int[] leastDistances,
+				final AtomicInteger leastDistanceWith2Hops, final int fromLocation, final int toLocation) {
+			
+			this.roadsNetwork = roadsNetwork;
+			this.leastDistances = leastDistances;
+			this.leastDistanceWith2Hops = leastDistanceWith2Hops;
+			this.fromLocation = fromLocation;
+			this.toLocation = toLocation;
+		}
 
+		@Override
+		protected void compute() {
+			if (toLocation - fromLocation > THRESHOLD) {
+				final int middleLocation = (fromLocation + toLocation) >>> 1;
+				
+				invokeAll(new Least2HopsCostTask(roadsNetwork, leastDistances, leastDistanceWith2Hops, fromLocation, middleLocation),
+						new Least2HopsCostTask(roadsNetwork, leastDistances, leastDistanceWith2Hops, middleLocation, toLocation));
+				return;
+			}
+			
+			final long[] scanned = new long[1];
+			int pruned = 0;
+			
+			for (int location = fromLocation; location < toLocation; location++) {
+				final int partialLeastDistanceWith2Hops = leastDistanceWith2Hops.get();
+				
+				if (leastDistances[location] > partialLeastDistanceWith2Hops) {
+					pruned++;
+					continue;
+				}
+				
+				final int least2HopsCostForLocation = calculateLeast2HopsCost(roadsNetwork, location, partialLeastDistanceWith2Hops, scanned);
+				
+				int current = leastDistanceWith2Hops.get();
+				while ((least2HopsCostForLocation < current) 
+						&& (! leastDistanceWith2Hops.compareAndSet(current, least2HopsCostForLocation)))
+					current = leastDistanceWith2Hops.get();
+			}
+			
+			if (SolverMetrics.enabled()) {
+				SolverMetrics.polled(toLocation - fromLocation - pruned);
+				SolverMetrics.pruned(pruned);
+				SolverMetrics.scanned(scanned[0]);
+			}
+		}
+    	
     }
 }
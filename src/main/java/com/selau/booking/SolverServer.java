@@ -0,0 +1,221 @@
+package com.selau.booking;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.metrics.SolverMetrics;
+
+/**
+ *  Keeps a JVM running to solve inputs sent over a loopback socket, so the
+ *  solvers stay compiled and their buffers warm from one input to the next.
+ *
+ *  A client writes one or more inputs in the README format and gets the
+ *  answer of every case back on its own line, as soon as it is solved and in
+ *  input order. The cases of all the connections are solved by a fixed pool
+ *  of workers behind a bounded queue: once the queue is full the connections
+ *  stop reading their socket until a worker is free, and at most a fixed
+ *  number of connections are served at once while the next ones wait in the
+ *  accept backlog. Each connection parses its input on a thread of a pool as
+ *  large as the connections, kept from one input to the next.
+ *
+ *  When a case cannot be read or solved, the client gets the answers before
+ *  it, then a line starting with "error" and the connection is closed.
+ */
+public class SolverServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService connections;
+    private final ExecutorService parsers;
+    private final Semaphore openConnections;
+    private final int inFlight;
+    private final CasePipeline.CaseSolver<?> caseSolver;
+    private final PrintStream log;
+    private final AtomicLong requests = new AtomicLong();
+
+    /**
+     *  @param port port to listen on, on the loopback interface only; 0 picks
+     *  a free one.
+     *  @param workers threads solving the cases.
+     *  @param queue cases waiting for a worker before the connections block.
+     *  @param maxConnections connections served at once.
+     *  @param log gets a line per input answered, or null.
+     */
+    public SolverServer(final int port, final int workers, final int queue, final int maxConnections,
+            final CasePipeline.CaseSolver<?> caseSolver, final PrintStream log) throws IOException {
+
+        if (workers < 1)
+            throw new IllegalArgumentException("Invalid number of workers " + workers + ".");
+        if (queue < 1)
+            throw new IllegalArgumentException("Invalid queue size " + queue + ".");
+        if (maxConnections < 1)
+            throw new IllegalArgumentException("Invalid number of connections " + maxConnections + ".");
+
+        this.serverSocket = new ServerSocket(port, maxConnections, InetAddress.getByName(null));
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queue), new CasePipeline.DaemonThreadFactory("server-worker-"), new BlockingSubmission());
+        this.connections = Executors.newFixedThreadPool(maxConnections, new CasePipeline.DaemonThreadFactory("server-connection-"));
+        this.parsers = Executors.newFixedThreadPool(maxConnections, new CasePipeline.DaemonThreadFactory("server-parser-"));
+        this.openConnections = new Semaphore(maxConnections);
+        this.inFlight = 2 * workers;
+        this.caseSolver = caseSolver;
+        this.log = log;
+
+        SolverMetrics.queue(this.workers.getQueue());
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     *  @return the cases waiting for a worker.
+     */
+    public int queueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     *  Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                openConnections.acquireUninterruptibly();
+
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (final IOException e) {
+                    openConnections.release();
+                    throw e;
+                }
+                connections.execute(new Connection(socket));
+            }
+        } catch (final SocketException e) {
+            if (! serverSocket.isClosed())
+                throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        parsers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void answer(final InputReader reader, final OutputWriter writer) throws IOException {
+        while (reader.hasNext()) {
+            final long start = System.nanoTime();
+            final int cases = reader.nextInt();
+
+            CasePipeline.run(reader, writer, cases, inFlight, parsers, workers, caseSolver);
+            writer.flush();
+
+            final long latency = System.nanoTime() - start;
+            SolverMetrics.requested(latency);
+
+            if (log != null) {
+                log.println("{\"request\":" + requests.incrementAndGet()
+                        + ",\"cases\":" + cases
+                        + ",\"latencyNanos\":" + latency
+                        + ",\"queueDepth\":" + queueDepth() + "}");
+            }
+        }
+    }
+
+    /**
+     *  Answers the inputs of a client until it closes its side.
+     */
+    private class Connection implements Runnable {
+
+        private final Socket socket;
+
+        Connection(final Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            OutputWriter writer = null;
+
+            try {
+                writer = new OutputWriter(socket.getOutputStream());
+                answer(new InputReader(socket.getInputStream()), writer);
+            } catch (final IOException | RuntimeException e) {
+                if (log != null)
+                    log.println("{\"error\":\"" + String.valueOf(e.getMessage()).replace('"', '\'') + "\"}");
+                if (writer != null)
+                    fail(writer, e);
+            } finally {
+                try {
+                    socket.close();
+                } catch (final IOException e) {
+                    // Nothing left to answer.
+                }
+                openConnections.release();
+            }
+        }
+
+        /**
+         *  Tells the client why its input stops being answered, after the
+         *  answers already printed, unless the socket itself failed.
+         */
+        private void fail(final OutputWriter writer, final Exception exception) {
+            final String message = "error " + String.valueOf(exception.getMessage());
+
+            try {
+                for (int index = 0; index < message.length(); index++) {
+                    final char character = message.charAt(index);
+                    writer.print(((character < ' ') || (character > '~')) ? ' ' : character);
+                }
+                writer.print('\n');
+                writer.flush();
+            } catch (final IOException e) {
+                // The client is gone.
+            }
+        }
+
+    }
+
+    /**
+     *  Waits for room in the queue instead of rejecting a case, which holds
+     *  the connection until the workers catch up.
+     */
+    private static class BlockingSubmission implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(final Runnable task, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown())
+                throw new RejectedExecutionException("The server is closed.");
+
+            try {
+                executor.getQueue().put(task);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for a worker.", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.selau.booking;
+
+/**
+ *  Finds the least distance of a route through at least three distinct
+ *  locations, one instance after another.
+ *
+ *  An instance starts with reset(), gets its roads through addRoad() and is
+ *  answered by solve(). Implementations keep their buffers between instances
+ *  and only grow them when a larger instance comes, so a solver reused for
+ *  many instances reaches a steady state without allocating per instance.
+ *  Solvers are not thread-safe: use one per thread.
+ */
+public interface WeekendRouteSolver {
+
+    /**
+     *  Creates solvers, one for every thread solving instances.
+     */
+    interface Factory {
+
+        WeekendRouteSolver create();
+
+    }
+
+    /**
+     *  Starts a new instance, discarding the roads of the previous one.
+     *
+     *  @param locations number of locations, with ids [0..locations).
+     */
+    void reset(int locations);
+
+    /**
+     *  Adds a bi-directional road between two locations of the instance.
+     */
+    void addRoad(int source, int target, int length);
+
+    /**
+     *  Solves the instance. It must be reset before solving again.
+     *
+     *  @return the least distance through three locations, or
+     *  RoadsNetwork.INFINITE_DISTANCE when there is no such route.
+     */
+    int solve();
+
+}
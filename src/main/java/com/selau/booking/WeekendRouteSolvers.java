@@ -0,0 +1,52 @@
+package com.selau.booking;
+
+import java.io.IOException;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Feeds instances to {@link WeekendRouteSolver}s.
+ */
+public final class WeekendRouteSolvers {
+
+    private WeekendRouteSolvers() {
+    }
+
+    /**
+     *  Resets solver with a test case read in the README format: the number of
+     *  locations and roads followed by the roads as 1-based location ids and
+     *  their length.
+     */
+    public static WeekendRouteSolver read(final InputReader reader, final WeekendRouteSolver solver) throws IOException {
+        final int locations = reader.nextInt();
+        final int roads = reader.nextInt();
+
+        solver.reset(locations);
+        for (int road = 0; road < roads; road++) {
+            final int source = reader.nextInt();
+            final int target = reader.nextInt();
+            final int length = reader.nextInt();
+
+            solver.addRoad(source - 1, target - 1, length);
+        }
+        return solver;
+    }
+
+    /**
+     *  Resets solver with the roads collected by a builder.
+     */
+    public static WeekendRouteSolver load(final RoadsNetworkBuilder roads, final WeekendRouteSolver solver) {
+        solver.reset(roads.locations());
+
+        for (int road = 0; road < roads.roads(); road++)
+            solver.addRoad(roads.source(road), roads.target(road), roads.length(road));
+
+        return solver;
+    }
+
+    public static int solve(final RoadsNetworkBuilder roads, final WeekendRouteSolver solver) {
+        return load(roads, solver).solve();
+    }
+
+}
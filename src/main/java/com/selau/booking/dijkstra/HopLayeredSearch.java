@@ -0,0 +1,163 @@
+package com.selau.booking.dijkstra;
+
+import java.util.Arrays;
+
+import com.selau.booking.metrics.SolverMetrics;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.queue.NodeQueue;
+
+/**
+ *  Single Dijkstra search for the least walk of at least a given number of
+ *  roads that never turns straight back, over states (location, roads taken
+ *  so far) with the roads capped at the number wanted.
+ *
+ *  Every location starts at distance 0, so the first road of a walk is
+ *  seeded directly into the states having taken one road, and the search
+ *  stops when no queued state can beat the best walk reaching the last layer.
+ *  A walk turning back is forbidden by remembering the previous location of
+ *  every state. A state may then have to be reached twice, from distinct
+ *  previous locations, since the best one could be the only way out: each
+ *  state keeps two slots, like the two lightest roads of {@link
+ *  com.selau.booking.LightestRoads}, and all updates of the slots are
+ *  decrease-keys of the queue.
+ *
+ *  With 2 roads the walk visits three distinct locations, which is the least
+ *  route of the weekend away. With more roads the walk may go around a cycle
+ *  of three or more locations and come back to a location already visited.
+ */
+public class HopLayeredSearch {
+
+    private static final int NO_LOCATION = -1;
+
+    private final Solution.QueueType queueType;
+    private NodeQueue queue;
+    private int[] distances = new int[0];
+    private int[] previous = new int[0];
+    private int locations;
+    private int bestWalk;
+    private int offered;
+
+    public HopLayeredSearch(final Solution.QueueType queueType) {
+        if (queueType == null)
+            throw new IllegalArgumentException("Invalid null queue type.");
+
+        this.queueType = queueType;
+        this.queue = queueType.create(0);
+    }
+
+    /**
+     *  @return the length of the least walk of at least roads roads never
+     *  going back to the location it just left, or INFINITE_DISTANCE.
+     */
+    public int leastWalk(final RoadsNetwork roadsNetwork, final int roads) {
+        if (roads < 1)
+            throw new IllegalArgumentException("Invalid number of roads " + roads + ".");
+
+        final long states = 2L * (roads - 1) * roadsNetwork.locations();
+        if (states > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many states for " + roads + " roads.");
+
+        reset(roadsNetwork.locations(), (int) states);
+
+        for (int location = 0; location < locations; location++) {
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++)
+                reach(roadsNetwork.neighbor(road), 1, roads, location, roadsNetwork.length(road));
+        }
+
+        int polled = 0;
+        int relaxed = 0;
+
+        while ((! queue.isEmpty()) && (queue.peekDistance() < bestWalk)) {
+            final int state = queue.poll();
+            final int location = state % locations;
+            final int roadsTaken = state / (2 * locations) + 1;
+            final int distance = distances[state];
+            polled++;
+
+            for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                final int neighbor = roadsNetwork.neighbor(road);
+                final int neighborDistance = distance + roadsNetwork.length(road);
+                relaxed++;
+
+                if (neighborDistance >= bestWalk)
+                    break;
+
+                if (neighbor != previous[state])
+                    reach(neighbor, roadsTaken + 1, roads, location, neighborDistance);
+            }
+        }
+
+        if (SolverMetrics.enabled()) {
+            SolverMetrics.polled(polled);
+            SolverMetrics.relaxed(relaxed);
+            SolverMetrics.queued(polled + offered);
+        }
+        return bestWalk;
+    }
+
+    private void reset(final int locations, final int states) {
+        if (queue.capacity() < states)
+            queue = queueType.create(states);
+        else
+            queue.clear();
+
+        if (distances.length < states) {
+            distances = new int[states];
+            previous = new int[states];
+        }
+        Arrays.fill(distances, 0, states, RoadsNetwork.INFINITE_DISTANCE);
+        Arrays.fill(previous, 0, states, NO_LOCATION);
+
+        this.locations = locations;
+        this.bestWalk = RoadsNetwork.INFINITE_DISTANCE;
+        this.offered = 0;
+    }
+
+    /**
+     *  Offers a walk of roadsTaken roads ending at location, coming from
+     *  from. Walks of enough roads only lower the best one, they are never
+     *  extended since roads have positive lengths.
+     */
+    private void reach(final int location, final int roadsTaken, final int roads, final int from, final int distance) {
+        if (roadsTaken >= roads) {
+            if (distance < bestWalk)
+                bestWalk = distance;
+            return;
+        }
+
+        final int lightest = 2 * (roadsTaken - 1) * locations + location;
+        final int second = lightest + locations;
+
+        if (from == previous[lightest]) {
+            decrease(lightest, from, distance);
+
+        } else if (from == previous[second]) {
+            if (distance < distances[second]) {
+                if (distance < distances[lightest]) {
+                    decrease(second, previous[lightest], distances[lightest]);
+                    decrease(lightest, from, distance);
+                } else {
+                    decrease(second, from, distance);
+                }
+            }
+
+        } else if (distance < distances[lightest]) {
+            if (previous[lightest] != NO_LOCATION)
+                decrease(second, previous[lightest], distances[lightest]);
+            decrease(lightest, from, distance);
+
+        } else if (distance < distances[second]) {
+            decrease(second, from, distance);
+        }
+    }
+
+    private void decrease(final int state, final int from, final int distance) {
+        if (distance < distances[state]) {
+            distances[state] = distance;
+            queue.offer(state, distance);
+            offered++;
+        }
+        previous[state] = from;
+    }
+
+}
@@ -0,0 +1,265 @@
+package com.selau.booking.generator;
+
+import java.io.IOException;
+import java.util.Random;
+
+import com.selau.booking.Arguments;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Seeded generator of inputs in the README format.
+ *
+ *  Roads are written as soon as they are drawn and only the last one is
+ *  remembered, to repeat it as a duplicate road, so the generator runs in
+ *  constant memory whatever the size of the cases. The first two roads of
+ *  every shape share a location, which makes sure each case has a solution.
+ *
+ *   java -cp target/classes com.selau.booking.generator.RoadsNetworkGenerator
+ *       [--seed=S] [--cases=T] [--locations=N] [--roads=M] [--shape=random|dense|hub|grid|chain]
+ *       [--degrees=uniform|power-law] [--exponent=E] [--min-length=A] [--max-length=B]
+ *       [--duplicates=P] > input.txt
+ */
+public class RoadsNetworkGenerator {
+
+    /**
+     *  How the roads of a case are laid out. Once a shape has no more roads of
+     *  its own, the remaining ones connect random locations.
+     */
+    public enum Shape {
+
+        /** Roads between random locations drawn from the degree distribution. */
+        RANDOM,
+
+        /** Every pair of the first locations connected, as few as needed for the roads. */
+        DENSE,
+
+        /** Location 1 connected to every other location. */
+        HUB,
+
+        /** Square grid with roads between horizontal and vertical neighbors. */
+        GRID,
+
+        /** Locations connected one after another in a single long chain. */
+        CHAIN
+
+    }
+
+    /**
+     *  Distribution of the random road ends.
+     */
+    public enum Degrees {
+
+        /** Every location equally likely. */
+        UNIFORM,
+
+        /** Location i drawn with probability proportional to i^-exponent, making low ids hubs. */
+        POWER_LAW
+
+    }
+
+    private final Random random;
+    private Shape shape = Shape.RANDOM;
+    private Degrees degrees = Degrees.UNIFORM;
+    private double exponent = 2.0;
+    private int minLength = 1;
+    private int maxLength = 100;
+    private double duplicates;
+
+    private int locations;
+    private int denseLocations;
+    private int source;
+    private int target;
+    private long shapeRoad;
+
+    public RoadsNetworkGenerator(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        final Arguments arguments = Arguments.parse(args);
+        final RoadsNetworkGenerator generator = new RoadsNetworkGenerator(arguments.longOption("seed", 1L))
+                .shape(arguments.enumOption("shape", Shape.class, Shape.RANDOM))
+                .degrees(arguments.enumOption("degrees", Degrees.class, Degrees.UNIFORM), arguments.doubleOption("exponent", 2.0))
+                .lengths(arguments.intOption("min-length", 1), arguments.intOption("max-length", 100))
+                .duplicates(arguments.doubleOption("duplicates", 0.0));
+
+        final OutputWriter writer = new OutputWriter(System.out);
+        generator.generate(arguments.intOption("cases", 1), arguments.intOption("locations", 100000), arguments.intOption("roads", 400000), writer);
+        writer.flush();
+    }
+
+    public RoadsNetworkGenerator shape(final Shape shape) {
+        this.shape = shape;
+        return this;
+    }
+
+    public RoadsNetworkGenerator degrees(final Degrees degrees, final double exponent) {
+        if (exponent <= 0)
+            throw new IllegalArgumentException("Invalid exponent " + exponent + ".");
+
+        this.degrees = degrees;
+        this.exponent = exponent;
+        return this;
+    }
+
+    public RoadsNetworkGenerator lengths(final int minLength, final int maxLength) {
+        if ((minLength < 1) || (minLength > maxLength) || (maxLength > RoadsNetwork.MAX_LENGTH))
+            throw new IllegalArgumentException("Invalid road lengths [" + minLength + ".." + maxLength + "].");
+
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    /**
+     *  @param duplicates probability for every road to be followed by another
+     *  road between the same locations, with its own length.
+     */
+    public RoadsNetworkGenerator duplicates(final double duplicates) {
+        if ((duplicates < 0) || (duplicates >= 1))
+            throw new IllegalArgumentException("Invalid duplicates probability " + duplicates + ".");
+
+        this.duplicates = duplicates;
+        return this;
+    }
+
+    public void generate(final int cases, final int locations, final int roads, final OutputWriter writer) throws IOException {
+        if (cases < 1)
+            throw new IllegalArgumentException("Invalid number of cases " + cases + ".");
+
+        writer.println(cases);
+        for (int weekendCase = 0; weekendCase < cases; weekendCase++)
+            generateCase(locations, roads, writer);
+    }
+
+    public void generateCase(final int locations, final int roads, final OutputWriter writer) throws IOException {
+        if ((locations < 3) || ((shape == Shape.GRID) && (locations < 4)) || (roads < 2))
+            throw new IllegalArgumentException("Invalid case with " + locations + " locations and " + roads + " roads.");
+
+        this.locations = locations;
+        this.denseLocations = denseLocations(locations, roads);
+        this.shapeRoad = 0;
+
+        writer.print(locations);
+        writer.print(' ');
+        writer.println(roads);
+
+        for (int road = 0; road < roads; road++) {
+            if ((road < 2) || (random.nextDouble() >= duplicates))
+                nextRoad(road);
+
+            writer.print(source);
+            writer.print(' ');
+            writer.print(target);
+            writer.print(' ');
+            writer.println(minLength + random.nextInt(maxLength - minLength + 1));
+        }
+    }
+
+    private void nextRoad(final int road) {
+        if (nextShapeRoad())
+            return;
+
+        if (road == 1) {
+            final int first = source;
+            final int second = target;
+
+            source = second;
+            do {
+                target = randomLocation();
+            } while ((target == first) || (target == second));
+            return;
+        }
+
+        source = randomLocation();
+        do {
+            target = randomLocation();
+        } while (target == source);
+    }
+
+    private boolean nextShapeRoad() {
+        switch (shape) {
+        case DENSE:
+            if (shapeRoad >= (long) denseLocations * (denseLocations - 1) / 2)
+                return false;
+
+            if (shapeRoad == 0) {
+                source = 1;
+                target = 2;
+            } else if (target < denseLocations) {
+                target++;
+            } else {
+                source++;
+                target = source + 1;
+            }
+            break;
+
+        case HUB:
+            if (shapeRoad >= locations - 1)
+                return false;
+
+            source = 1;
+            target = (int) shapeRoad + 2;
+            break;
+
+        case GRID:
+            final int side = (int) Math.sqrt(locations);
+            int row;
+            int column;
+            boolean horizontal;
+
+            do {
+                if (shapeRoad >= 2L * side * side)
+                    return false;
+
+                row = (int) (shapeRoad / 2) / side;
+                column = (int) (shapeRoad / 2) % side;
+                horizontal = (shapeRoad % 2 == 0);
+                shapeRoad++;
+            } while ((horizontal && (column + 1 == side)) || (! horizontal && (row + 1 == side)));
+
+            source = row * side + column + 1;
+            target = horizontal ? source + 1 : source + side;
+            return true;
+
+        case CHAIN:
+            if (shapeRoad >= locations - 1)
+                return false;
+
+            source = (int) shapeRoad + 1;
+            target = source + 1;
+            break;
+
+        default:
+            return false;
+        }
+        shapeRoad++;
+        return true;
+    }
+
+    /**
+     *  Smallest number of locations whose pairs cover the roads of the case.
+     */
+    private static int denseLocations(final int locations, final int roads) {
+        final int size = (int) Math.ceil((1 + Math.sqrt(1 + 8.0 * roads)) / 2);
+        return Math.max(3, Math.min(locations, size));
+    }
+
+    private int randomLocation() {
+        if (degrees == Degrees.UNIFORM)
+            return 1 + random.nextInt(locations);
+
+        final double uniform = random.nextDouble();
+        final double location;
+
+        if (exponent == 1.0) {
+            location = Math.exp(uniform * Math.log(locations + 1.0));
+        } else {
+            final double power = 1.0 - exponent;
+            location = Math.pow((Math.pow(locations + 1.0, power) - 1.0) * uniform + 1.0, 1.0 / power);
+        }
+        return Math.max(1, Math.min(locations, (int) location));
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.selau.booking.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ *  Reads ASCII integers straight from a byte buffer, without the regular
+ *  expressions and boxing of java.util.Scanner.
+ *
+ *  Streams such as stdin are read through a reusable heap buffer. Files are
+ *  memory-mapped in large windows, so the parser walks the page cache
+ *  directly.
+ */
+public class InputReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long MAPPING_WINDOW = 1L << 28;
+
+    private final ReadableByteChannel channel;
+    private final FileChannel file;
+    private final long mappingWindow;
+    private long mappedPosition;
+    private long bufferPosition;
+    private ByteBuffer buffer;
+
+    public InputReader(final InputStream input) {
+        this.channel = Channels.newChannel(input);
+        this.file = null;
+        this.mappingWindow = 0;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    private InputReader(final FileChannel file, final long position, final long mappingWindow) {
+        this.channel = file;
+        this.file = file;
+        this.mappingWindow = mappingWindow;
+        this.mappedPosition = position;
+        this.bufferPosition = position;
+        this.buffer = ByteBuffer.allocate(0);
+    }
+
+    public static InputReader open(final String path) throws IOException {
+        return open(path, 0);
+    }
+
+    /**
+     *  @param position offset of the first byte to read in the file.
+     */
+    public static InputReader open(final String path, final long position) throws IOException {
+        return open(path, position, MAPPING_WINDOW);
+    }
+
+    static InputReader open(final String path, final long position, final long mappingWindow) throws IOException {
+        return new InputReader(new RandomAccessFile(path, "r").getChannel(), position, mappingWindow);
+    }
+
+    /**
+     *  @return the offset of the next byte to read from the start of the input.
+     */
+    public long position() {
+        return bufferPosition + buffer.position();
+    }
+
+    public int nextInt() throws IOException {
+        int character = read();
+
+        while ((character >= 0) && (character <= ' '))
+            character = read();
+
+        if (character < 0)
+            throw new NoSuchElementException("No more integers to read.");
+
+        boolean negative = false;
+        if (character == '-') {
+            negative = true;
+            character = read();
+        }
+
+        if ((character < '0') || (character > '9'))
+            throw new InputMismatchException("Invalid character '" + (char) character + "' while reading an integer.");
+
+        int value = 0;
+        while ((character >= '0') && (character <= '9')) {
+            value = 10 * value + (character - '0');
+            character = read();
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     *  Skips count integers without computing their value, about twice as
+     *  fast as reading them.
+     */
+    public void skipInts(final long count) throws IOException {
+        for (long skipped = 0; skipped < count; skipped++) {
+            int character = read();
+
+            while ((character >= 0) && (character <= ' '))
+                character = read();
+
+            if (character < 0)
+                throw new NoSuchElementException("No more integers to read.");
+
+            while (character > ' ')
+                character = read();
+        }
+    }
+
+    /**
+     *  Skips the blanks ahead.
+     *
+     *  @return true when another integer follows, false at the end of input.
+     */
+    public boolean hasNext() throws IOException {
+        while (buffer.hasRemaining() || fill()) {
+            if ((buffer.get(buffer.position()) & 0xff) > ' ')
+                return true;
+
+            buffer.get();
+        }
+        return false;
+    }
+
+    private int read() throws IOException {
+        if (! buffer.hasRemaining() && ! fill())
+            return -1;
+
+        return buffer.get() & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        if (file != null) {
+            final long size = file.size();
+            if (mappedPosition >= size)
+                return false;
+
+            final long window = Math.min(mappingWindow, size - mappedPosition);
+            buffer = file.map(MapMode.READ_ONLY, mappedPosition, window);
+            bufferPosition = mappedPosition;
+            mappedPosition += window;
+            return true;
+        }
+
+        bufferPosition += buffer.limit();
+        buffer.clear();
+        int read = 0;
+        while (read == 0)
+            read = channel.read(buffer);
+        buffer.flip();
+
+        return read > 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
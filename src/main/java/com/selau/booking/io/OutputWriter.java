@@ -0,0 +1,74 @@
+package com.selau.booking.io;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ *  Buffers integers and separators as ASCII bytes and writes them in large
+ *  chunks to the underlying stream.
+ */
+public class OutputWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    private final OutputStream output;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[11];
+    private int position;
+
+    public OutputWriter(final OutputStream output) {
+        this.output = output;
+    }
+
+    public void print(final int value) throws IOException {
+        if (position + digits.length > buffer.length)
+            flushBuffer();
+
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[position++] = '-';
+            remaining = -remaining;
+        }
+
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + (remaining % 10));
+            remaining /= 10;
+        } while (remaining > 0);
+
+        while (length > 0)
+            buffer[position++] = digits[--length];
+    }
+
+    public void print(final char character) throws IOException {
+        if (position == buffer.length)
+            flushBuffer();
+
+        buffer[position++] = (byte) character;
+    }
+
+    public void println(final int value) throws IOException {
+        print(value);
+        print('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        output.close();
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.selau.booking.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ *  Opt-in counters and timers of the solvers, shared by all their threads.
+ *
+ *  The hot loops only bump local counters and publish them once per search
+ *  when the metrics are enabled, so while disabled the cost is a volatile
+ *  read per search and one per timed phase. Solvers build their network
+ *  within solve(), so the solve time leaves out the build time of its
+ *  thread, and the two timers add up without overlapping.
+ */
+public final class SolverMetrics implements SolverMetricsMBean {
+
+    public static final String OBJECT_NAME = "com.selau.booking:type=SolverMetrics";
+
+    private static final SolverMetrics INSTANCE = new SolverMetrics();
+
+    private static volatile boolean enabled;
+
+    private static final ThreadLocal<long[]> BUILD_NANOS_OF_THREAD = new ThreadLocal<long[]>() {
+
+        @Override
+        protected long[] initialValue() {
+            return new long[1];
+        }
+
+    };
+
+    private final AtomicLong cases = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicLong buildNanos = new AtomicLong();
+    private final AtomicLong solveNanos = new AtomicLong();
+    private final AtomicLong nodesPolled = new AtomicLong();
+    private final AtomicLong nodesPruned = new AtomicLong();
+    private final AtomicLong roadsScanned = new AtomicLong();
+    private final AtomicLong relaxations = new AtomicLong();
+    private final AtomicLong queueOperations = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong requestNanos = new AtomicLong();
+    private volatile Collection<?> queue;
+
+    private SolverMetrics() {
+    }
+
+    public static SolverMetrics instance() {
+        return INSTANCE;
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     *  Enables the metrics and exposes them through the platform MBean server.
+     */
+    public static void register() {
+        enable();
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (final JMException e) {
+            throw new IllegalStateException("Unable to register the solver metrics.", e);
+        }
+    }
+
+    /**
+     *  @return the start of a timed phase, to be passed to its end.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void parsed(final long start) {
+        if (enabled)
+            INSTANCE.parseNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     *  @return the start of a solve, to be passed to solved().
+     */
+    public static long startSolve() {
+        if (! enabled)
+            return 0;
+
+        BUILD_NANOS_OF_THREAD.get()[0] = 0;
+        return System.nanoTime();
+    }
+
+    public static void built(final long start) {
+        if (enabled) {
+            final long nanos = System.nanoTime() - start;
+
+            INSTANCE.buildNanos.addAndGet(nanos);
+            BUILD_NANOS_OF_THREAD.get()[0] += nanos;
+        }
+    }
+
+    /**
+     *  Counts a case solved since startSolve(), but for the networks built
+     *  meanwhile by this thread.
+     */
+    public static void solved(final long start) {
+        if (enabled) {
+            INSTANCE.solveNanos.addAndGet(System.nanoTime() - start - BUILD_NANOS_OF_THREAD.get()[0]);
+            INSTANCE.cases.incrementAndGet();
+        }
+    }
+
+    public static void polled(final long nodes) {
+        INSTANCE.nodesPolled.addAndGet(nodes);
+    }
+
+    public static void pruned(final long nodes) {
+        INSTANCE.nodesPruned.addAndGet(nodes);
+    }
+
+    public static void scanned(final long roads) {
+        INSTANCE.roadsScanned.addAndGet(roads);
+    }
+
+    public static void relaxed(final long roads) {
+        INSTANCE.relaxations.addAndGet(roads);
+    }
+
+    public static void queued(final long operations) {
+        INSTANCE.queueOperations.addAndGet(operations);
+    }
+
+    public static void cached(final boolean hit) {
+        if (enabled)
+            (hit ? INSTANCE.cacheHits : INSTANCE.cacheMisses).incrementAndGet();
+    }
+
+    /**
+     *  Counts an input answered by a server and its latency.
+     */
+    public static void requested(final long nanos) {
+        if (enabled) {
+            INSTANCE.requests.incrementAndGet();
+            INSTANCE.requestNanos.addAndGet(nanos);
+        }
+    }
+
+    /**
+     *  Reports the size of queue as the queue depth.
+     */
+    public static void queue(final Collection<?> queue) {
+        INSTANCE.queue = queue;
+    }
+
+    /**
+     *  Prints the metrics as a single JSON line.
+     */
+    public static void printSummary(final PrintStream output) {
+        output.println("{\"cases\":" + INSTANCE.getCases()
+                + ",\"parseNanos\":" + INSTANCE.getParseNanos()
+                + ",\"buildNanos\":" + INSTANCE.getBuildNanos()
+                + ",\"solveNanos\":" + INSTANCE.getSolveNanos()
+                + ",\"nodesPolled\":" + INSTANCE.getNodesPolled()
+                + ",\"nodesPruned\":" + INSTANCE.getNodesPruned()
+                + ",\"roadsScanned\":" + INSTANCE.getRoadsScanned()
+                + ",\"relaxations\":" + INSTANCE.getRelaxations()
+                + ",\"queueOperations\":" + INSTANCE.getQueueOperations()
+                + ",\"cacheHits\":" + INSTANCE.getCacheHits()
+                + ",\"cacheMisses\":" + INSTANCE.getCacheMisses()
+                + ",\"requests\":" + INSTANCE.getRequests()
+                + ",\"requestNanos\":" + INSTANCE.getRequestNanos()
+                + ",\"queueDepth\":" + INSTANCE.getQueueDepth() + "}");
+    }
+
+    @Override
+    public long getCases() {
+        return cases.get();
+    }
+
+    @Override
+    public long getParseNanos() {
+        return parseNanos.get();
+    }
+
+    @Override
+    public long getBuildNanos() {
+        return buildNanos.get();
+    }
+
+    @Override
+    public long getSolveNanos() {
+        return solveNanos.get();
+    }
+
+    @Override
+    public long getNodesPolled() {
+        return nodesPolled.get();
+    }
+
+    @Override
+    public long getNodesPruned() {
+        return nodesPruned.get();
+    }
+
+    @Override
+    public long getRoadsScanned() {
+        return roadsScanned.get();
+    }
+
+    @Override
+    public long getRelaxations() {
+        return relaxations.get();
+    }
+
+    @Override
+    public long getQueueOperations() {
+        return queueOperations.get();
+    }
+
+    @Override
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.get();
+    }
+
+    @Override
+    public long getRequestNanos() {
+        return requestNanos.get();
+    }
+
+    @Override
+    public int getQueueDepth() {
+        final Collection<?> current = queue;
+        return (current == null) ? 0 : current.size();
+    }
+
+    @Override
+    public void reset() {
+        cases.set(0);
+        parseNanos.set(0);
+        buildNanos.set(0);
+        solveNanos.set(0);
+        nodesPolled.set(0);
+        nodesPruned.set(0);
+        roadsScanned.set(0);
+        relaxations.set(0);
+        queueOperations.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        requests.set(0);
+        requestNanos.set(0);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.selau.booking.metrics;
+
+/**
+ *  JMX view of the {@link SolverMetrics}, registered as
+ *  com.selau.booking:type=SolverMetrics.
+ */
+public interface SolverMetricsMBean {
+
+    long getCases();
+
+    long getParseNanos();
+
+    long getBuildNanos();
+
+    long getSolveNanos();
+
+    long getNodesPolled();
+
+    long getNodesPruned();
+
+    long getRoadsScanned();
+
+    long getRelaxations();
+
+    long getQueueOperations();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    long getRequests();
+
+    long getRequestNanos();
+
+    int getQueueDepth();
+
+    void reset();
+
+}
@@ -0,0 +1,66 @@
+package com.selau.booking.network;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ *  Compressed sparse row network read straight from NIO buffers, such as the
+ *  sections of a memory-mapped {@link RoadsNetworkSnapshot}, without copying
+ *  them to the heap. Same layout as {@link CompressedRoadsNetwork}.
+ */
+public class BufferRoadsNetwork implements RoadsNetwork {
+
+    private final int locations;
+    private final IntBuffer offsets;
+    private final IntBuffer neighbors;
+    private final ByteBuffer lengths;
+
+    public BufferRoadsNetwork(final int locations, final IntBuffer offsets, final IntBuffer neighbors, final ByteBuffer lengths) {
+        this.locations = locations;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.lengths = lengths;
+    }
+
+    @Override
+    public int locations() {
+        return locations;
+    }
+
+    @Override
+    public int firstRoad(final int location) {
+        return offsets.get(location);
+    }
+
+    @Override
+    public int lastRoad(final int location) {
+        return offsets.get(location + 1);
+    }
+
+    @Override
+    public int neighbor(final int road) {
+        return neighbors.get(road);
+    }
+
+    @Override
+    public int length(final int road) {
+        return lengths.get(road);
+    }
+
+    @Override
+    public int distance(final int source, final int target) {
+        int distance = INFINITE_DISTANCE;
+
+        for (int road = firstRoad(source); road < lastRoad(source); road++) {
+            if ((neighbor(road) == target) && (length(road) < distance))
+                distance = length(road);
+        }
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "BufferRoadsNetwork [locations=" + locations + ", roads=" + (offsets.get(locations) / 2) + "]";
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.selau.booking.network;
+
+/**
+ *  Compressed sparse row representation of the roads network.
+ *
+ *  The roads of location i are stored in neighbors[offsets[i] .. offsets[i+1])
+ *  with their lengths in the parallel lengths array. Lengths are bounded by 100
+ *  so they fit in a byte.
+ */
+public class CompressedRoadsNetwork implements RoadsNetwork {
+
+    private final int locations;
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final byte[] lengths;
+
+    public CompressedRoadsNetwork(final int locations, final int[] offsets, final int[] neighbors, final byte[] lengths) {
+        this.locations = locations;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.lengths = lengths;
+    }
+
+    @Override
+    public int locations() {
+        return locations;
+    }
+
+    @Override
+    public int firstRoad(final int location) {
+        return offsets[location];
+    }
+
+    @Override
+    public int lastRoad(final int location) {
+        return offsets[location + 1];
+    }
+
+    @Override
+    public int neighbor(final int road) {
+        return neighbors[road];
+    }
+
+    @Override
+    public int length(final int road) {
+        return lengths[road];
+    }
+
+    @Override
+    public int distance(final int source, final int target) {
+        int distance = INFINITE_DISTANCE;
+
+        for (int road = offsets[source]; road < offsets[source + 1]; road++) {
+            if ((neighbors[road] == target) && (lengths[road] < distance))
+                distance = lengths[road];
+        }
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedRoadsNetwork [locations=" + locations + ", roads=" + (offsets[locations] / 2) + "]";
+    }
+
+}
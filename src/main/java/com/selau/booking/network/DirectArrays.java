@@ -0,0 +1,117 @@
+package com.selau.booking.network;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *  Arrays stored outside of the Java heap in direct buffers.
+ *
+ *  A direct buffer holds at most 2 GiB, so the elements are spread over
+ *  segments of SEGMENT_SIZE bytes addressed by long byte offsets. Only the
+ *  last segment is smaller than that and reallocated when the array grows,
+ *  the full ones are kept as they are.
+ */
+final class DirectArrays {
+
+    static final int SEGMENT_BITS = 30;
+    static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+    static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private static final ByteBuffer[] NO_SEGMENTS = new ByteBuffer[0];
+
+    private DirectArrays() {
+    }
+
+    /**
+     *  Segments holding at least capacity bytes, keeping the content of the
+     *  given ones.
+     */
+    static ByteBuffer[] ensureCapacity(final ByteBuffer[] segments, final long capacity) {
+        final long current = bytes(segments);
+        if (current >= capacity)
+            return segments;
+
+        final long grown = Math.max(capacity, current + (current >> 1));
+        final int count = (int) ((grown + SEGMENT_MASK) >>> SEGMENT_BITS);
+        final ByteBuffer[] grownSegments = new ByteBuffer[count];
+
+        for (int segment = 0; segment < count; segment++) {
+            final int size = (int) Math.min(SEGMENT_SIZE, grown - ((long) segment << SEGMENT_BITS));
+
+            if ((segment < segments.length) && (segments[segment].capacity() == size)) {
+                grownSegments[segment] = segments[segment];
+            } else {
+                grownSegments[segment] = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+
+                if (segment < segments.length) {
+                    final ByteBuffer previous = segments[segment].duplicate();
+                    previous.clear();
+                    grownSegments[segment].put(previous).clear();
+                }
+            }
+        }
+        return grownSegments;
+    }
+
+    static long bytes(final ByteBuffer[] segments) {
+        return (segments.length == 0) ? 0 : ((long) (segments.length - 1) << SEGMENT_BITS) + segments[segments.length - 1].capacity();
+    }
+
+    /**
+     *  Array of ints addressed by long indexes.
+     */
+    static final class Ints {
+
+        private ByteBuffer[] segments = NO_SEGMENTS;
+
+        long capacity() {
+            return bytes(segments) >>> 2;
+        }
+
+        void ensureCapacity(final long capacity) {
+            segments = DirectArrays.ensureCapacity(segments, capacity << 2);
+        }
+
+        int get(final long index) {
+            final long position = index << 2;
+            return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+        }
+
+        void set(final long index, final int value) {
+            final long position = index << 2;
+            segments[(int) (position >>> SEGMENT_BITS)].putInt((int) (position & SEGMENT_MASK), value);
+        }
+
+        void fill(final long from, final long to, final int value) {
+            for (long index = from; index < to; index++)
+                set(index, value);
+        }
+
+    }
+
+    /**
+     *  Array of bytes addressed by long indexes.
+     */
+    static final class Bytes {
+
+        private ByteBuffer[] segments = NO_SEGMENTS;
+
+        long capacity() {
+            return bytes(segments);
+        }
+
+        void ensureCapacity(final long capacity) {
+            segments = DirectArrays.ensureCapacity(segments, capacity);
+        }
+
+        byte get(final long index) {
+            return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & SEGMENT_MASK));
+        }
+
+        void set(final long index, final byte value) {
+            segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & SEGMENT_MASK), value);
+        }
+
+    }
+
+}
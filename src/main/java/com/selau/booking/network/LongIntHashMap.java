@@ -0,0 +1,140 @@
+package com.selau.booking.network;
+
+import java.util.Arrays;
+
+/**
+ *  Open-addressing hash map from long keys to int values, for road lookups
+ *  keyed by a pair of locations (see {@link #pair(int, int)}).
+ *
+ *  Keys and values live in two parallel arrays probed linearly, so a lookup
+ *  neither allocates nor boxes and an entry takes 12 bytes per slot. The
+ *  table doubles when it is more than half full, and removals shift the
+ *  following entries back instead of leaving tombstones. Keys must not be
+ *  negative, the pairs of location ids never are.
+ */
+public class LongIntHashMap {
+
+    private static final long FREE = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     *  @return the key of the roads between two locations, the same in both
+     *  directions.
+     */
+    public static long pair(final int location, final int otherLocation) {
+        return ((long) Math.min(location, otherLocation) << 32) | Math.max(location, otherLocation);
+    }
+
+    /**
+     *  @return the value of key, or absent when the map does not contain it.
+     */
+    public int get(final long key, final int absent) {
+        final int slot = slot(key);
+        return (keys[slot] == FREE) ? absent : values[slot];
+    }
+
+    public void put(final long key, final int value) {
+        final int slot = slot(key);
+
+        if (keys[slot] == FREE)
+            insert(slot, key, value);
+        else
+            values[slot] = value;
+    }
+
+    /**
+     *  @return the value removed, or absent when the map did not contain key.
+     */
+    public int remove(final long key, final int absent) {
+        int slot = slot(key);
+
+        if (keys[slot] == FREE)
+            return absent;
+
+        final int value = values[slot];
+        size--;
+
+        for (int next = (slot + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+            final int home = hash(keys[next]) & mask;
+
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = FREE;
+        return value;
+    }
+
+    private int slot(final long key) {
+        if (key < 0)
+            throw new IllegalArgumentException("Invalid negative key " + key + ".");
+
+        int slot = hash(key) & mask;
+        while ((keys[slot] != FREE) && (keys[slot] != key))
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    private void insert(final int slot, final long key, final int value) {
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size > (mask >> 1))
+            rehash();
+    }
+
+    private void rehash() {
+        final long[] previousKeys = keys;
+        final int[] previousValues = values;
+
+        allocate(2 * keys.length);
+        for (int slot = 0; slot < previousKeys.length; slot++) {
+            if (previousKeys[slot] != FREE) {
+                int target = hash(previousKeys[slot]) & mask;
+
+                while (keys[target] != FREE)
+                    target = (target + 1) & mask;
+
+                keys[target] = previousKeys[slot];
+                values[target] = previousValues[slot];
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+
+        Arrays.fill(keys, FREE);
+    }
+
+    /**
+     *  Finalizer of MurmurHash3, spreading the location ids of both halves
+     *  over the low bits used as slot.
+     */
+    static int hash(final long key) {
+        long hash = key;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return (int) hash;
+    }
+
+}
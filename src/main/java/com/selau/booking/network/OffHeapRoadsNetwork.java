@@ -0,0 +1,64 @@
+package com.selau.booking.network;
+
+/**
+ *  Compressed sparse row network kept outside of the Java heap, built by an
+ *  {@link OffHeapRoadsNetworkBuilder}. Same layout as
+ *  {@link CompressedRoadsNetwork}, but the arrays live in direct buffers, so
+ *  the garbage collector never scans nor copies them whatever their size.
+ */
+public class OffHeapRoadsNetwork implements RoadsNetwork {
+
+    private final int locations;
+    private final DirectArrays.Ints offsets;
+    private final DirectArrays.Ints neighbors;
+    private final DirectArrays.Bytes lengths;
+
+    OffHeapRoadsNetwork(final int locations, final DirectArrays.Ints offsets, final DirectArrays.Ints neighbors, final DirectArrays.Bytes lengths) {
+        this.locations = locations;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+        this.lengths = lengths;
+    }
+
+    @Override
+    public int locations() {
+        return locations;
+    }
+
+    @Override
+    public int firstRoad(final int location) {
+        return offsets.get(location);
+    }
+
+    @Override
+    public int lastRoad(final int location) {
+        return offsets.get(location + 1);
+    }
+
+    @Override
+    public int neighbor(final int road) {
+        return neighbors.get(road);
+    }
+
+    @Override
+    public int length(final int road) {
+        return lengths.get(road);
+    }
+
+    @Override
+    public int distance(final int source, final int target) {
+        int distance = INFINITE_DISTANCE;
+
+        for (int road = firstRoad(source); road < lastRoad(source); road++) {
+            if ((neighbor(road) == target) && (length(road) < distance))
+                distance = length(road);
+        }
+        return distance;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapRoadsNetwork [locations=" + locations + ", roads=" + (offsets.get(locations) / 2) + "]";
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.selau.booking.network;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.metrics.SolverMetrics;
+
+/**
+ *  Collects roads in direct buffers and builds an {@link OffHeapRoadsNetwork},
+ *  so neither the roads read nor the network built take room on the Java
+ *  heap: networks with many more roads than the heap could hold are solved
+ *  without GC pauses.
+ *
+ *  Unlike {@link RoadsNetworkBuilder} there is no room for an index sorting
+ *  the roads by length before scattering them: the roads are scattered in
+ *  input order, reusing the offsets as insertion cursors, and the roads of
+ *  every location are then sorted by length in place. The buffers are kept
+ *  across resets, and the network built shares them until the next build.
+ */
+public class OffHeapRoadsNetworkBuilder {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final DirectArrays.Ints sources = new DirectArrays.Ints();
+    private final DirectArrays.Ints targets = new DirectArrays.Ints();
+    private final DirectArrays.Bytes roadLengths = new DirectArrays.Bytes();
+
+    private final DirectArrays.Ints offsets = new DirectArrays.Ints();
+    private final DirectArrays.Ints neighbors = new DirectArrays.Ints();
+    private final DirectArrays.Bytes lengths = new DirectArrays.Bytes();
+
+    private final int[] lengthCounts = new int[RoadsNetwork.MAX_LENGTH + 1];
+    private final int[] nextWithLength = new int[RoadsNetwork.MAX_LENGTH + 1];
+    private final int[] endOfLength = new int[RoadsNetwork.MAX_LENGTH + 1];
+
+    private int locations;
+    private int roads;
+
+    public OffHeapRoadsNetworkBuilder() {
+        reset(0);
+    }
+
+    /**
+     *  Reads a test case: the number of locations and roads followed by the
+     *  roads as 1-based location ids and their length.
+     */
+    public OffHeapRoadsNetworkBuilder read(final InputReader reader) throws IOException {
+        final int locations = reader.nextInt();
+        final int roads = reader.nextInt();
+
+        reset(locations);
+        for (int road = 0; road < roads; road++) {
+            final int source = reader.nextInt();
+            final int target = reader.nextInt();
+            final int length = reader.nextInt();
+
+            addRoad(source - 1, target - 1, length);
+        }
+        return this;
+    }
+
+    public void reset(final int locations) {
+        if (locations < 0)
+            throw new IllegalArgumentException("Invalid negative size for the roads network.");
+
+        this.locations = locations;
+        this.roads = 0;
+    }
+
+    public void addRoad(final int source, final int target, final int length) {
+        RoadsNetworkBuilder.validateRoad(locations, source, target, length);
+
+        if (source == target)
+            return;
+
+        if (roads == Integer.MAX_VALUE / 2)
+            throw new IllegalStateException("Too many roads for the network.");
+
+        if (roads == sources.capacity()) {
+            final long capacity = Math.max(1024, 2L * roads);
+
+            sources.ensureCapacity(capacity);
+            targets.ensureCapacity(capacity);
+            roadLengths.ensureCapacity(capacity);
+        }
+        sources.set(roads, source);
+        targets.set(roads, target);
+        roadLengths.set(roads, (byte) length);
+        roads++;
+    }
+
+    public int locations() {
+        return locations;
+    }
+
+    public int roads() {
+        return roads;
+    }
+
+    public OffHeapRoadsNetwork build() {
+        final long start = SolverMetrics.start();
+
+        offsets.ensureCapacity(locations + 1L);
+        neighbors.ensureCapacity(2L * roads);
+        lengths.ensureCapacity(2L * roads);
+
+        offsets.fill(0, locations + 1L, 0);
+        for (int road = 0; road < roads; road++) {
+            increment(sources.get(road) + 1);
+            increment(targets.get(road) + 1);
+        }
+        for (int location = 0; location < locations; location++)
+            offsets.set(location + 1, offsets.get(location + 1) + offsets.get(location));
+
+        for (int road = 0; road < roads; road++) {
+            final int source = sources.get(road);
+            final int target = targets.get(road);
+            final byte length = roadLengths.get(road);
+
+            place(source, target, length);
+            place(target, source, length);
+        }
+        for (int location = locations; location > 0; location--)
+            offsets.set(location, offsets.get(location - 1));
+        offsets.set(0, 0);
+
+        for (int location = 0; location < locations; location++)
+            sortByLength(offsets.get(location), offsets.get(location + 1));
+
+        SolverMetrics.built(start);
+        return new OffHeapRoadsNetwork(locations, offsets, neighbors, lengths);
+    }
+
+    private void increment(final int location) {
+        offsets.set(location, offsets.get(location) + 1);
+    }
+
+    /**
+     *  Appends a road at the cursor of location, leaving the cursor on the
+     *  first road of the next location once all of them are placed.
+     */
+    private void place(final int location, final int neighbor, final byte length) {
+        final int road = offsets.get(location);
+
+        neighbors.set(road, neighbor);
+        lengths.set(road, length);
+        offsets.set(location, road + 1);
+    }
+
+    private void sortByLength(final int firstRoad, final int lastRoad) {
+        if (lastRoad - firstRoad <= INSERTION_SORT_THRESHOLD) {
+            for (int road = firstRoad + 1; road < lastRoad; road++) {
+                for (int previous = road; (previous > firstRoad) && (lengths.get(previous - 1) > lengths.get(previous)); previous--)
+                    swap(previous - 1, previous);
+            }
+            return;
+        }
+
+        Arrays.fill(lengthCounts, 0);
+        for (int road = firstRoad; road < lastRoad; road++)
+            lengthCounts[lengths.get(road)]++;
+
+        for (int length = 0, next = firstRoad; length <= RoadsNetwork.MAX_LENGTH; length++) {
+            nextWithLength[length] = next;
+            next += lengthCounts[length];
+            endOfLength[length] = next;
+        }
+
+        for (int length = 0; length <= RoadsNetwork.MAX_LENGTH; length++) {
+            while (nextWithLength[length] < endOfLength[length]) {
+                final int road = nextWithLength[length];
+                final int roadLength = lengths.get(road);
+
+                if (roadLength == length)
+                    nextWithLength[length]++;
+                else
+                    swap(road, nextWithLength[roadLength]++);
+            }
+        }
+    }
+
+    private void swap(final int road, final int otherRoad) {
+        final int neighbor = neighbors.get(road);
+        final byte length = lengths.get(road);
+
+        neighbors.set(road, neighbors.get(otherRoad));
+        lengths.set(road, lengths.get(otherRoad));
+        neighbors.set(otherRoad, neighbor);
+        lengths.set(otherRoad, length);
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.selau.booking.network;
+
+/**
+ *  Read-only view of the roads between locations, indexed by int ids.
+ *
+ *  Locations have ids [0..locations). The roads leaving a location occupy the
+ *  contiguous range [firstRoad(location), lastRoad(location)) and each road
+ *  index gives access to its neighbor and length, so iterating the neighbors
+ *  of a location is an allocation-free index loop:
+ *
+ *   for (int road = network.firstRoad(location); road < network.lastRoad(location); road++) {
+ *       final int neighbor = network.neighbor(road);
+ *       final int length = network.length(road);
+ *   }
+ *
+ *  Every bi-directional road appears once in the range of each of its ends,
+ *  and the roads of a location are sorted by increasing length, so a scan can
+ *  stop at the first road that is too long.
+ */
+public interface RoadsNetwork {
+
+    int INFINITE_DISTANCE = Integer.MAX_VALUE;
+
+    /** Longest road allowed by the constraints, so lengths also fit in a byte. */
+    int MAX_LENGTH = 100;
+
+    int locations();
+
+    int firstRoad(int location);
+
+    int lastRoad(int location);
+
+    int neighbor(int road);
+
+    int length(int road);
+
+    /**
+     *  @return the length of the shortest road between source and target, or
+     *  INFINITE_DISTANCE when they are not directly connected.
+     */
+    int distance(int source, int target);
+
+}
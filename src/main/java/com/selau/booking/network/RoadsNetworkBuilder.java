@@ -0,0 +1,206 @@
+package com.selau.booking.network;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.metrics.SolverMetrics;
+
+/**
+ *  Collects the roads of a test case and builds a {@link CompressedRoadsNetwork}
+ *  in two passes: the first one counts the degree of every location to compute
+ *  the offsets, the second one scatters the roads into their slots in order of
+ *  length, so the roads of every location end up sorted by increasing length.
+ *
+ *  Roads connecting a location to itself are dropped, they can never be part
+ *  of a route through distinct locations. The kept roads stay available in
+ *  input order through roads(), source(), target() and length().
+ */
+public class RoadsNetworkBuilder {
+
+    private static final int[] NO_INTS = new int[0];
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private int locations;
+    private int roads;
+    private int[] sources;
+    private int[] targets;
+    private byte[] lengths;
+
+    private int[] offsets = NO_INTS;
+    private int[] next = NO_INTS;
+    private int[] roadsByLength = NO_INTS;
+    private int[] neighbors = NO_INTS;
+    private byte[] roadLengths = NO_BYTES;
+
+    public RoadsNetworkBuilder() {
+        this(0, 0);
+    }
+
+    public RoadsNetworkBuilder(final int locations, final int expectedRoads) {
+        if (expectedRoads < 0)
+            throw new IllegalArgumentException("Invalid negative size for the roads network.");
+
+        this.sources = new int[expectedRoads];
+        this.targets = new int[expectedRoads];
+        this.lengths = new byte[expectedRoads];
+        reset(locations);
+    }
+
+    /**
+     *  Reads a test case: the number of locations and roads followed by the
+     *  roads as 1-based location ids and their length.
+     */
+    public static RoadsNetworkBuilder read(final InputReader reader) throws IOException {
+        final int locations = reader.nextInt();
+        final int roads = reader.nextInt();
+        final RoadsNetworkBuilder roadsNetworkBuilder = new RoadsNetworkBuilder(locations, roads);
+
+        for (int road = 0; road < roads; road++) {
+            final int source = reader.nextInt();
+            final int target = reader.nextInt();
+            final int length = reader.nextInt();
+
+            roadsNetworkBuilder.addRoad(source - 1, target - 1, length);
+        }
+        return roadsNetworkBuilder;
+    }
+
+    /**
+     *  Starts collecting the roads of a new network, keeping the buffers of
+     *  the previous ones.
+     */
+    public void reset(final int locations) {
+        if (locations < 0)
+            throw new IllegalArgumentException("Invalid negative size for the roads network.");
+
+        this.locations = locations;
+        this.roads = 0;
+    }
+
+    /**
+     *  Checks a road of a network with the given number of locations.
+     */
+    public static void validateRoad(final int locations, final int source, final int target, final int length) {
+        if ((source < 0) || (source >= locations) || (target < 0) || (target >= locations))
+            throw new IllegalArgumentException("Invalid road between locations " + source + " and " + target + ".");
+
+        if ((length < 1) || (length > RoadsNetwork.MAX_LENGTH))
+            throw new IllegalArgumentException("Invalid road length " + length + ".");
+    }
+
+    public void addRoad(final int source, final int target, final int length) {
+        validateRoad(locations, source, target, length);
+
+        if (source == target)
+            return;
+
+        if (roads == sources.length)
+            grow();
+
+        sources[roads] = source;
+        targets[roads] = target;
+        lengths[roads] = (byte) length;
+        roads++;
+    }
+
+    public int locations() {
+        return locations;
+    }
+
+    public int roads() {
+        return roads;
+    }
+
+    public int source(final int road) {
+        return sources[road];
+    }
+
+    public int target(final int road) {
+        return targets[road];
+    }
+
+    public int length(final int road) {
+        return lengths[road];
+    }
+
+    /**
+     *  Builds the network of the roads added since the last reset. The network
+     *  shares the buffers of this builder, grown only when too small: it stays
+     *  valid until the builder builds again.
+     */
+    public RoadsNetwork build() {
+        final long start = SolverMetrics.start();
+
+        offsets = ensureCapacity(offsets, locations + 1);
+        next = ensureCapacity(next, locations);
+        neighbors = ensureCapacity(neighbors, 2 * roads);
+        roadLengths = ensureCapacity(roadLengths, 2 * roads);
+
+        Arrays.fill(offsets, 0, locations + 1, 0);
+        for (int road = 0; road < roads; road++) {
+            offsets[sources[road] + 1]++;
+            offsets[targets[road] + 1]++;
+        }
+        for (int location = 0; location < locations; location++)
+            offsets[location + 1] += offsets[location];
+
+        System.arraycopy(offsets, 0, next, 0, locations);
+
+        sortRoadsByLength();
+        for (int index = 0; index < roads; index++) {
+            final int road = roadsByLength[index];
+            final int source = sources[road];
+            final int target = targets[road];
+
+            neighbors[next[source]] = target;
+            roadLengths[next[source]++] = lengths[road];
+
+            neighbors[next[target]] = source;
+            roadLengths[next[target]++] = lengths[road];
+        }
+        SolverMetrics.built(start);
+        return new CompressedRoadsNetwork(locations, offsets, neighbors, roadLengths);
+    }
+
+    /**
+     *  Counting sort of the roads by length, scattering them in this order
+     *  leaves the roads of every location sorted by increasing length.
+     */
+    private void sortRoadsByLength() {
+        final int[] firstRoadWithLength = new int[RoadsNetwork.MAX_LENGTH + 2];
+
+        for (int road = 0; road < roads; road++)
+            firstRoadWithLength[lengths[road] + 1]++;
+        for (int length = 0; length <= RoadsNetwork.MAX_LENGTH; length++)
+            firstRoadWithLength[length + 1] += firstRoadWithLength[length];
+
+        roadsByLength = ensureCapacity(roadsByLength, roads);
+        for (int road = 0; road < roads; road++)
+            roadsByLength[firstRoadWithLength[lengths[road]]++] = road;
+    }
+
+    private static int[] ensureCapacity(final int[] buffer, final int capacity) {
+        return (buffer.length >= capacity) ? buffer : new int[Math.max(capacity, buffer.length + (buffer.length >> 1))];
+    }
+
+    private static byte[] ensureCapacity(final byte[] buffer, final int capacity) {
+        return (buffer.length >= capacity) ? buffer : new byte[Math.max(capacity, buffer.length + (buffer.length >> 1))];
+    }
+
+    private void grow() {
+        final int capacity = Math.max(16, 2 * sources.length);
+        final int[] newSources = new int[capacity];
+        final int[] newTargets = new int[capacity];
+        final byte[] newLengths = new byte[capacity];
+
+        System.arraycopy(sources, 0, newSources, 0, roads);
+        System.arraycopy(targets, 0, newTargets, 0, roads);
+        System.arraycopy(lengths, 0, newLengths, 0, roads);
+
+        sources = newSources;
+        targets = newTargets;
+        lengths = newLengths;
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.selau.booking.network;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.zip.CRC32;
+
+import com.selau.booking.Arguments;
+import com.selau.booking.io.InputReader;
+
+/**
+ *  Binary file of a built network, loaded by mapping it in memory instead of
+ *  parsing the text input again.
+ *
+ *  Little-endian layout, a 24 bytes header followed by the CSR arrays:
+ *
+ *   int   magic 'BWAY'
+ *   int   version
+ *   int   locations
+ *   int   roads, counting both directions
+ *   long  CRC32 of everything after the header
+ *   int   offsets[locations + 1]
+ *   int   neighbors[roads]
+ *   byte  lengths[roads]
+ *
+ *  Roads are written in the order of the network, so the roads of every
+ *  location stay sorted by length.
+ */
+public final class RoadsNetworkSnapshot {
+
+    static final int MAGIC = 0x59415742;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 24;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private RoadsNetworkSnapshot() {
+    }
+
+    public static void write(final RoadsNetwork roadsNetwork, final String path) throws IOException {
+        final int locations = roadsNetwork.locations();
+        final int roads = (locations == 0) ? 0 : roadsNetwork.lastRoad(locations - 1);
+        final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 checksum = new CRC32();
+        final RandomAccessFile file = new RandomAccessFile(path, "rw");
+
+        try {
+            final FileChannel channel = file.getChannel();
+            channel.truncate(0);
+            channel.position(HEADER_SIZE);
+
+            for (int location = 0; location <= locations; location++) {
+                chunk.putInt((location == locations) ? roads : roadsNetwork.firstRoad(location));
+                if (chunk.remaining() < 4)
+                    drain(chunk, channel, checksum);
+            }
+            for (int road = 0; road < roads; road++) {
+                chunk.putInt(roadsNetwork.neighbor(road));
+                if (chunk.remaining() < 4)
+                    drain(chunk, channel, checksum);
+            }
+            for (int road = 0; road < roads; road++) {
+                chunk.put((byte) roadsNetwork.length(road));
+                if (! chunk.hasRemaining())
+                    drain(chunk, channel, checksum);
+            }
+            drain(chunk, channel, checksum);
+
+            chunk.putInt(MAGIC).putInt(VERSION).putInt(locations).putInt(roads).putLong(checksum.getValue());
+            chunk.flip();
+            channel.position(0);
+            while (chunk.hasRemaining())
+                channel.write(chunk);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     *  Maps a snapshot in memory and checks it. The network reads the mapped
+     *  file directly and stays valid after the file is closed.
+     */
+    public static RoadsNetwork load(final String path) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(path, "r");
+        final MappedByteBuffer mapped;
+
+        try {
+            if (file.length() > Integer.MAX_VALUE)
+                throw new IOException("Snapshot " + path + " is too large to be mapped.");
+
+            mapped = file.getChannel().map(MapMode.READ_ONLY, 0, file.length());
+        } finally {
+            file.close();
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        if ((mapped.capacity() < HEADER_SIZE) || (mapped.getInt(0) != MAGIC))
+            throw new IOException("File " + path + " is not a roads network snapshot.");
+        if (mapped.getInt(4) != VERSION)
+            throw new IOException("Unsupported version " + mapped.getInt(4) + " of snapshot " + path + ".");
+
+        final int locations = mapped.getInt(8);
+        final int roads = mapped.getInt(12);
+        final long expectedSize = HEADER_SIZE + 4L * (locations + 1) + 5L * roads;
+
+        if ((locations < 0) || (roads < 0) || ((locations == 0) && (roads > 0)) || (mapped.capacity() != expectedSize))
+            throw new IOException("Snapshot " + path + " is truncated or corrupted.");
+        check(mapped, path, locations, roads);
+
+        final int neighborsPosition = HEADER_SIZE + 4 * (locations + 1);
+        final int lengthsPosition = neighborsPosition + 4 * roads;
+
+        return new BufferRoadsNetwork(locations,
+                section(mapped, HEADER_SIZE, neighborsPosition).asIntBuffer(),
+                section(mapped, neighborsPosition, lengthsPosition).asIntBuffer(),
+                section(mapped, lengthsPosition, mapped.capacity()));
+    }
+
+    /**
+     *  Writes the given test case of a text input as a snapshot:
+     *  RoadsNetworkSnapshot --output=network.bin [--case=1] [input.txt]
+     */
+    public static void main(String[] args) throws IOException {
+        final Arguments arguments = Arguments.parse(args);
+        final String output = arguments.option("output", null);
+        final int weekendCase = arguments.intOption("case", 1);
+        final InputReader reader = arguments.openInput();
+
+        if (output == null)
+            throw new IllegalArgumentException("Missing --output file for the snapshot.");
+
+        final int cases = reader.nextInt();
+        if ((weekendCase < 1) || (weekendCase > cases))
+            throw new IllegalArgumentException("Invalid case " + weekendCase + " of " + cases + ".");
+
+        for (int skipped = 1; skipped < weekendCase; skipped++)
+            skip(reader);
+
+        write(RoadsNetworkBuilder.read(reader).build(), output);
+        reader.close();
+    }
+
+    private static void skip(final InputReader reader) throws IOException {
+        reader.nextInt();
+        final int roads = reader.nextInt();
+
+        for (int value = 0; value < 3 * roads; value++)
+            reader.nextInt();
+    }
+
+    private static void drain(final ByteBuffer chunk, final FileChannel channel, final CRC32 checksum) throws IOException {
+        checksum.update(chunk.array(), 0, chunk.position());
+        chunk.flip();
+        while (chunk.hasRemaining())
+            channel.write(chunk);
+        chunk.clear();
+    }
+
+    /**
+     *  Checks the checksum and the arrays of a snapshot in the same pass, so
+     *  a snapshot written wrong with a matching checksum cannot send the
+     *  solvers out of their arrays: the offsets must grow from 0 to roads,
+     *  the neighbors be locations and the lengths be in [1, MAX_LENGTH].
+     */
+    private static void check(final ByteBuffer mapped, final String path, final int locations, final int roads) throws IOException {
+        final CRC32 checksum = new CRC32();
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        final ByteBuffer values = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer payload = mapped.duplicate();
+        final int neighborsPosition = HEADER_SIZE + 4 * (locations + 1);
+        final int lengthsPosition = neighborsPosition + 4 * roads;
+        int previousOffset = 0;
+        int location = 0;
+        int invalid = -1;
+
+        payload.position(HEADER_SIZE);
+        while (payload.hasRemaining()) {
+            final int from = payload.position();
+            final int size = Math.min(chunk.length, payload.remaining());
+
+            payload.get(chunk, 0, size);
+            checksum.update(chunk, 0, size);
+
+            for (int index = 0; (index < size) && (invalid < 0); ) {
+                final int position = from + index;
+
+                if (position < neighborsPosition) {
+                    final int offsetLocation = (position - HEADER_SIZE) / 4;
+                    final int offset = values.getInt(index);
+
+                    if ((offset < previousOffset) || (offset > roads) || ((offsetLocation == locations) && (offset != roads))
+                            || ((offsetLocation == 0) && (offset != 0)))
+                        invalid = Math.max(offsetLocation - 1, 0);
+
+                    previousOffset = offset;
+                    index += 4;
+                } else {
+                    final int road = (position < lengthsPosition) ? (position - neighborsPosition) / 4 : position - lengthsPosition;
+
+                    if (position == lengthsPosition)
+                        location = 0;
+                    while (road >= mapped.getInt(HEADER_SIZE + 4 * (location + 1)))
+                        location++;
+
+                    if (position < lengthsPosition) {
+                        final int neighbor = values.getInt(index);
+
+                        if ((neighbor < 0) || (neighbor >= locations))
+                            invalid = location;
+                        index += 4;
+                    } else {
+                        final int length = chunk[index];
+
+                        if ((length < 1) || (length > RoadsNetwork.MAX_LENGTH))
+                            invalid = location;
+                        index++;
+                    }
+                }
+            }
+        }
+
+        if (checksum.getValue() != mapped.getLong(16))
+            throw new IOException("Checksum mismatch in snapshot " + path + ".");
+        if (invalid >= 0)
+            throw new IOException("Invalid roads of location " + invalid + " in snapshot " + path + ".");
+    }
+
+    private static ByteBuffer section(final ByteBuffer mapped, final int from, final int to) {
+        final ByteBuffer section = mapped.duplicate();
+
+        section.position(from);
+        section.limit(to);
+        return section.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
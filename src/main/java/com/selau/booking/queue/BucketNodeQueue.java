@@ -0,0 +1,145 @@
+package com.selau.booking.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ *  Dial's circular bucket queue for monotone searches on roads no longer than
+ *  maxLength.
+ *
+ *  While a search runs every queued distance lies in [current, current +
+ *  maxLength], so maxLength + 1 buckets indexed by distance modulo their
+ *  count are enough. Each bucket is a doubly-linked list of nodes kept in
+ *  int arrays, which makes offer and decrease-key O(1) without allocation.
+ *  Polling advances the current distance to the next non-empty bucket.
+ *
+ *  Nodes may also be offered below the current distance, as long as every
+ *  queued distance still fits in the buckets, which lets multi-source
+ *  searches seed their sources in any order.
+ */
+public class BucketNodeQueue implements NodeQueue {
+
+    private static final int NONE = -1;
+
+    private final int[] heads;
+    private final int[] next;
+    private final int[] previous;
+    private final int[] distances;
+    private final boolean[] queued;
+    private int current;
+    private int last;
+    private int size;
+
+    public BucketNodeQueue(final int locations, final int maxLength) {
+        if ((locations < 0) || (maxLength < 1))
+            throw new IllegalArgumentException("Invalid size for the bucket queue.");
+
+        this.heads = new int[maxLength + 1];
+        this.next = new int[locations];
+        this.previous = new int[locations];
+        this.distances = new int[locations];
+        this.queued = new boolean[locations];
+
+        Arrays.fill(heads, NONE);
+    }
+
+    @Override
+    public void clear() {
+        for (int bucket = 0; (size > 0) && (bucket < heads.length); bucket++) {
+            for (int node = heads[bucket]; node != NONE; node = next[node]) {
+                queued[node] = false;
+                size--;
+            }
+            heads[bucket] = NONE;
+        }
+        current = 0;
+        last = 0;
+        size = 0;
+    }
+
+    @Override
+    public int capacity() {
+        return queued.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(final int node) {
+        return queued[node];
+    }
+
+    @Override
+    public void offer(final int node, final int distance) {
+        if (queued[node]) {
+            if (distance >= distances[node])
+                return;
+
+            unlink(node);
+            size--;
+        }
+
+        if (size == 0) {
+            current = distance;
+            last = distance;
+        } else if ((Math.max(last, distance) - Math.min(current, distance)) >= heads.length) {
+            throw new IllegalArgumentException("Distance " + distance + " outside of the bucket range from " + current + " to " + last + ".");
+        } else {
+            current = Math.min(current, distance);
+            last = Math.max(last, distance);
+        }
+
+        distances[node] = distance;
+        link(node);
+        size++;
+    }
+
+    @Override
+    public int peekDistance() {
+        if (size == 0)
+            throw new NoSuchElementException("Empty bucket queue.");
+
+        while (heads[current % heads.length] == NONE)
+            current++;
+
+        return current;
+    }
+
+    @Override
+    public int poll() {
+        final int node = heads[peekDistance() % heads.length];
+
+        unlink(node);
+        size--;
+
+        return node;
+    }
+
+    private void link(final int node) {
+        final int bucket = distances[node] % heads.length;
+
+        previous[node] = NONE;
+        next[node] = heads[bucket];
+        if (heads[bucket] != NONE)
+            previous[heads[bucket]] = node;
+
+        heads[bucket] = node;
+        queued[node] = true;
+    }
+
+    private void unlink(final int node) {
+        if (previous[node] == NONE)
+            heads[distances[node] % heads.length] = next[node];
+        else
+            next[previous[node]] = next[node];
+
+        if (next[node] != NONE)
+            previous[next[node]] = previous[node];
+
+        queued[node] = false;
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.selau.booking.queue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ *  Indexed d-ary min-heap of node ids keyed by an int distance.
+ *
+ *  The position of every node in the heap array is tracked, so a queued node
+ *  is found in O(1) and decrease-key sifts it up in O(log n) instead of
+ *  removing and re-adding it. Everything lives in int arrays sized once for
+ *  the number of locations, so no update allocates.
+ */
+public class IndexedMinHeap implements NodeQueue {
+
+    private static final int DEFAULT_ARITY = 4;
+    private static final int ABSENT = -1;
+
+    private final int arity;
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] distances;
+    private int size;
+
+    public IndexedMinHeap(final int locations) {
+        this(locations, DEFAULT_ARITY);
+    }
+
+    public IndexedMinHeap(final int locations, final int arity) {
+        if ((locations < 0) || (arity < 2))
+            throw new IllegalArgumentException("Invalid size for the heap.");
+
+        this.arity = arity;
+        this.heap = new int[locations];
+        this.positions = new int[locations];
+        this.distances = new int[locations];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    @Override
+    public void clear() {
+        for (int position = 0; position < size; position++)
+            positions[heap[position]] = ABSENT;
+
+        size = 0;
+    }
+
+    @Override
+    public int capacity() {
+        return positions.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(final int node) {
+        return positions[node] != ABSENT;
+    }
+
+    /**
+     *  @return the distance node is queued at.
+     */
+    public int distance(final int node) {
+        if (positions[node] == ABSENT)
+            throw new NoSuchElementException("Node " + node + " is not queued.");
+
+        return distances[node];
+    }
+
+    @Override
+    public void offer(final int node, final int distance) {
+        if (positions[node] != ABSENT) {
+            if (distance < distances[node]) {
+                distances[node] = distance;
+                siftUp(positions[node]);
+            }
+            return;
+        }
+
+        distances[node] = distance;
+        heap[size] = node;
+        positions[node] = size;
+        siftUp(size++);
+    }
+
+    /**
+     *  Moves node to any distance, lower or higher, queuing it when absent.
+     */
+    public void update(final int node, final int distance) {
+        if (positions[node] == ABSENT) {
+            offer(node, distance);
+            return;
+        }
+
+        final int previousDistance = distances[node];
+        distances[node] = distance;
+
+        if (distance < previousDistance)
+            siftUp(positions[node]);
+        else if (distance > previousDistance)
+            siftDown(positions[node]);
+    }
+
+    /**
+     *  @return the node with the least distance, left in the heap.
+     */
+    public int peek() {
+        if (size == 0)
+            throw new NoSuchElementException("Empty heap.");
+
+        return heap[0];
+    }
+
+    @Override
+    public int peekDistance() {
+        if (size == 0)
+            throw new NoSuchElementException("Empty heap.");
+
+        return distances[heap[0]];
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0)
+            throw new NoSuchElementException("Empty heap.");
+
+        final int node = heap[0];
+        positions[node] = ABSENT;
+
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return node;
+    }
+
+    private void siftUp(int position) {
+        final int node = heap[position];
+        final int distance = distances[node];
+
+        while (position > 0) {
+            final int parentPosition = (position - 1) / arity;
+            final int parent = heap[parentPosition];
+
+            if (distances[parent] <= distance)
+                break;
+
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+    private void siftDown(int position) {
+        final int node = heap[position];
+        final int distance = distances[node];
+
+        while (true) {
+            final int firstChild = arity * position + 1;
+            if (firstChild >= size)
+                break;
+
+            final int lastChild = Math.min(firstChild + arity, size);
+            int leastChild = firstChild;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (distances[heap[child]] < distances[heap[leastChild]])
+                    leastChild = child;
+            }
+
+            if (distances[heap[leastChild]] >= distance)
+                break;
+
+            heap[position] = heap[leastChild];
+            positions[heap[position]] = position;
+            position = leastChild;
+        }
+        heap[position] = node;
+        positions[node] = position;
+    }
+
+}
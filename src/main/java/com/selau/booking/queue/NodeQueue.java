@@ -0,0 +1,39 @@
+package com.selau.booking.queue;
+
+/**
+ *  Priority queue of node ids keyed by their tentative distance, as used by
+ *  Dijkstra's algorithm. A node is queued at most once: offering it again only
+ *  lowers its distance (decrease-key).
+ */
+public interface NodeQueue {
+
+    /**
+     *  @return the number of node ids [0..capacity) the queue can hold.
+     */
+    int capacity();
+
+    void clear();
+
+    boolean isEmpty();
+
+    boolean contains(int node);
+
+    /**
+     *  Queues node at distance, or lowers its distance when it is already
+     *  queued farther away.
+     */
+    void offer(int node, int distance);
+
+    /**
+     *  @return the distance of the node that the next poll() returns.
+     */
+    int peekDistance();
+
+    /**
+     *  Removes the node with the least distance.
+     *
+     *  @return its id.
+     */
+    int poll();
+
+}
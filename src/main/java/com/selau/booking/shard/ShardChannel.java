@@ -0,0 +1,156 @@
+package com.selau.booking.shard;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ *  Ints exchanged between the coordinator and a shard worker over a pipe,
+ *  buffered in large chunks.
+ *
+ *  A message starts with a tag. A tag of 0 or more is a road record: the
+ *  local id of the location owning the road, followed by the neighbor and
+ *  the length of the road. RESET is followed by the number of local
+ *  locations of the next test case, and SOLVE asks the worker to write back
+ *  the least route through its locations.
+ *
+ *  When the input is a file, OPEN gives its path to the workers and PARSE
+ *  asks one of them to read a slice of the roads of a test case: the number
+ *  of locations of the case, the number of shards and its own one, the
+ *  offset of the slice in the file and its number of roads. That worker
+ *  writes back the road records of the slice owned by other shards in
+ *  blocks, each made of the shard owning them, their count and the records,
+ *  ended by PARSED. A worker failing to parse its slice writes FAILED and
+ *  the cause of the failure instead of PARSED.
+ */
+final class ShardChannel implements Closeable {
+
+    static final int RESET = -1;
+    static final int SOLVE = -2;
+    static final int OPEN = -3;
+    static final int PARSE = -4;
+    static final int PARSED = -5;
+    static final int FAILED = -6;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final OutputStream output;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    ShardChannel(final InputStream input, final OutputStream output) {
+        this.input = input;
+        this.output = output;
+        this.readBuffer.flip();
+    }
+
+    void writeInt(final int value) throws IOException {
+        if (writeBuffer.remaining() < 4)
+            flushBuffer();
+
+        writeBuffer.putInt(value);
+    }
+
+    void writeLong(final long value) throws IOException {
+        if (writeBuffer.remaining() < 8)
+            flushBuffer();
+
+        writeBuffer.putLong(value);
+    }
+
+    void writeString(final String value) throws IOException {
+        writeInt(value.length());
+
+        for (int index = 0; index < value.length(); index++)
+            writeInt(value.charAt(index));
+    }
+
+    void writeRoad(final int location, final int neighbor, final int length) throws IOException {
+        if (writeBuffer.remaining() < 12)
+            flushBuffer();
+
+        writeBuffer.putInt(location).putInt(neighbor).putInt(length);
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        output.flush();
+    }
+
+    /**
+     *  @return false when the other side closed the pipe between two messages.
+     */
+    boolean hasNext() throws IOException {
+        return (readBuffer.remaining() >= 4) || fill(4, false);
+    }
+
+    int readInt() throws IOException {
+        if (readBuffer.remaining() < 4)
+            fill(4, true);
+
+        return readBuffer.getInt();
+    }
+
+    long readLong() throws IOException {
+        if (readBuffer.remaining() < 8)
+            fill(8, true);
+
+        return readBuffer.getLong();
+    }
+
+    String readString() throws IOException {
+        final char[] value = new char[readInt()];
+
+        for (int index = 0; index < value.length; index++)
+            value[index] = (char) readInt();
+
+        return new String(value);
+    }
+
+    /**
+     *  Makes sure the 3 ints of a road record are buffered.
+     */
+    void requireRoad() throws IOException {
+        if (readBuffer.remaining() < 8)
+            fill(8, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            output.close();
+            input.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        output.write(writeBuffer.array(), 0, writeBuffer.position());
+        writeBuffer.clear();
+    }
+
+    private boolean fill(final int bytes, final boolean required) throws IOException {
+        readBuffer.compact();
+
+        while (readBuffer.position() < bytes) {
+            final int read = input.read(readBuffer.array(), readBuffer.position(), readBuffer.remaining());
+
+            if (read < 0) {
+                readBuffer.flip();
+
+                if (required || readBuffer.hasRemaining())
+                    throw new EOFException("Pipe closed in the middle of a message.");
+                return false;
+            }
+            readBuffer.position(readBuffer.position() + read);
+        }
+        readBuffer.flip();
+        return true;
+    }
+
+}
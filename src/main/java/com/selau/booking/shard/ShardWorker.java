@@ -0,0 +1,189 @@
+package com.selau.booking.shard;
+
+import java.io.IOException;
+
+import com.selau.booking.LightestRoads;
+import com.selau.booking.io.InputReader;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Process keeping the two lightest roads of the locations of one shard,
+ *  started by a {@link ShardedSolver} and talking to it over stdin and
+ *  stdout. It exits once the coordinator closes its stdin.
+ */
+public class ShardWorker {
+
+    private static final int BLOCK_ROADS = 4096;
+
+    private final LightestRoads lightestRoads = new LightestRoads(0);
+    private final LightestRoads sliceRoads = new LightestRoads(0);
+    private String path;
+    private Thread parser;
+
+    public static void main(String[] args) throws IOException {
+        final ShardChannel channel = new ShardChannel(System.in, System.out);
+
+        new ShardWorker().serve(channel);
+        channel.close();
+    }
+
+    void serve(final ShardChannel channel) throws IOException {
+        while (channel.hasNext()) {
+            final int tag = channel.readInt();
+
+            if (tag >= 0) {
+                channel.requireRoad();
+                lightestRoads.add(tag, channel.readInt(), channel.readInt());
+
+            } else if (tag == ShardChannel.RESET) {
+                awaitParser();
+                lightestRoads.reset(channel.readInt());
+
+            } else if (tag == ShardChannel.SOLVE) {
+                awaitParser();
+                channel.writeInt(lightestRoads.leastRoute());
+                channel.flush();
+
+            } else if (tag == ShardChannel.OPEN) {
+                path = channel.readString();
+
+            } else if (tag == ShardChannel.PARSE) {
+                awaitParser();
+                parser = new Thread(new SliceParser(channel, channel.readInt(), channel.readInt(), channel.readInt(), channel.readLong(),
+                        channel.readInt()), "shard-parser");
+                parser.start();
+
+            } else {
+                throw new IllegalStateException("Unknown message " + tag + ".");
+            }
+        }
+    }
+
+    /**
+     *  Waits for the slice being parsed and adds the roads it kept.
+     */
+    private void awaitParser() {
+        if (parser == null)
+            return;
+
+        try {
+            parser.join();
+            parser = null;
+            lightestRoads.addAll(sliceRoads);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing a slice.", e);
+        }
+    }
+
+    /**
+     *  Reads a slice of the roads of a test case and writes them back to the
+     *  coordinator grouped by the shard owning their ends, while the worker
+     *  keeps applying the records relayed to it from the other slices. The
+     *  ends owned by this shard are kept apart in sliceRoads, so only one
+     *  thread updates each of the summaries.
+     */
+    private final class SliceParser implements Runnable {
+
+        private final ShardChannel channel;
+        private final int locations;
+        private final int shards;
+        private final int shard;
+        private final long position;
+        private final int roads;
+        private final int[][] blocks;
+        private final int[] sizes;
+
+        SliceParser(final ShardChannel channel, final int locations, final int shards, final int shard, final long position, final int roads) {
+            this.channel = channel;
+            this.locations = locations;
+            this.shards = shards;
+            this.shard = shard;
+            this.position = position;
+            this.roads = roads;
+            this.blocks = new int[shards][3 * BLOCK_ROADS];
+            this.sizes = new int[shards];
+        }
+
+        /**
+         *  A broken slice is reported to the coordinator in place of the end
+         *  of its records, so it fails with the cause instead of waiting for
+         *  them. The worker keeps serving until the coordinator closes it.
+         */
+        @Override
+        public void run() {
+            try {
+                parse();
+            } catch (final Exception e) {
+                try {
+                    channel.writeInt(ShardChannel.FAILED);
+                    channel.writeString(e.toString());
+                    channel.flush();
+                } catch (final IOException lost) {
+                    throw new IllegalStateException("Lost the coordinator.", lost);
+                }
+            }
+        }
+
+        private void parse() throws IOException {
+            final InputReader reader = InputReader.open(path, position);
+
+            sliceRoads.reset(lightestRoads.locations());
+            try {
+                for (int road = 0; road < roads; road++) {
+                    final int source = reader.nextInt() - 1;
+                    final int target = reader.nextInt() - 1;
+                    final int length = reader.nextInt();
+
+                    RoadsNetworkBuilder.validateRoad(locations, source, target, length);
+                    if (source != target) {
+                        add(source, target, length);
+                        add(target, source, length);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+
+            for (int owner = 0; owner < shards; owner++) {
+                if (sizes[owner] > 0)
+                    writeBlock(owner);
+            }
+            channel.writeInt(ShardChannel.PARSED);
+            channel.flush();
+        }
+
+        private void add(final int location, final int neighbor, final int length) throws IOException {
+            final int owner = location % shards;
+
+            if (owner == shard) {
+                sliceRoads.add(location / shards, neighbor, length);
+                return;
+            }
+
+            final int[] block = blocks[owner];
+            final int size = sizes[owner];
+
+            block[size] = location / shards;
+            block[size + 1] = neighbor;
+            block[size + 2] = length;
+            sizes[owner] = size + 3;
+
+            if (sizes[owner] == block.length)
+                writeBlock(owner);
+        }
+
+        private void writeBlock(final int owner) throws IOException {
+            final int[] block = blocks[owner];
+
+            channel.writeInt(owner);
+            channel.writeInt(sizes[owner] / 3);
+            for (int index = 0; index < sizes[owner]; index += 3)
+                channel.writeRoad(block[index], block[index + 1], block[index + 2]);
+
+            sizes[owner] = 0;
+        }
+
+    }
+
+}
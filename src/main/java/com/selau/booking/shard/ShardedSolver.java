@@ -0,0 +1,299 @@
+package com.selau.booking.shard;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.selau.booking.WeekendRouteSolver;
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.metrics.SolverMetrics;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Coordinator spreading the locations of a test case over worker processes,
+ *  so no single JVM holds the summary of every location.
+ *
+ *  Location l belongs to shard l % shards, with local id l / shards. Every
+ *  road is sent to the shards of both its ends, where a {@link ShardWorker}
+ *  keeps the two lightest roads of its own locations like
+ *  {@link com.selau.booking.LightestRoads}. On solve() every worker answers
+ *  the least route having one of its locations in the middle, and the least
+ *  of these partial minima is the answer of the whole network, the same as
+ *  the single-process solvers.
+ *
+ *  The workers are started once and solve test case after test case until
+ *  the solver is closed. They update their slots while the coordinator is
+ *  still parsing the roads, and scan their locations for the least route in
+ *  parallel. When the input is a file, solveAll() has the workers parse the
+ *  roads as well.
+ */
+public class ShardedSolver implements WeekendRouteSolver, Closeable {
+
+    private final Process[] processes;
+    private final ShardChannel[] channels;
+    private int locations;
+    private boolean closed;
+
+    /**
+     *  @param jvmOptions options of the worker JVMs, such as their heap size.
+     */
+    public ShardedSolver(final int shards, final String... jvmOptions) throws IOException {
+        if (shards < 1)
+            throw new IllegalArgumentException("Invalid number of shards " + shards + ".");
+
+        final List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardWorker.class.getName());
+
+        this.processes = new Process[shards];
+        this.channels = new ShardChannel[shards];
+
+        boolean started = false;
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                processes[shard] = new ProcessBuilder(command).redirectError(Redirect.INHERIT).start();
+                channels[shard] = new ShardChannel(processes[shard].getInputStream(), processes[shard].getOutputStream());
+            }
+            started = true;
+        } finally {
+            if (! started)
+                destroy();
+        }
+    }
+
+    public int shards() {
+        return channels.length;
+    }
+
+    @Override
+    public void reset(final int locations) {
+        if (locations < 0)
+            throw new IllegalArgumentException("Invalid negative number of locations.");
+
+        this.locations = locations;
+
+        try {
+            for (int shard = 0; shard < channels.length; shard++) {
+                channels[shard].writeInt(ShardChannel.RESET);
+                channels[shard].writeInt((locations - shard + channels.length - 1) / channels.length);
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("Lost a shard worker.", e);
+        }
+    }
+
+    @Override
+    public void addRoad(final int source, final int target, final int length) {
+        RoadsNetworkBuilder.validateRoad(locations, source, target, length);
+
+        if (source == target)
+            return;
+
+        try {
+            final int shards = channels.length;
+            channels[source % shards].writeRoad(source / shards, target, length);
+            channels[target % shards].writeRoad(target / shards, source, length);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Lost a shard worker.", e);
+        }
+    }
+
+    @Override
+    public int solve() {
+        try {
+            for (final ShardChannel channel : channels) {
+                channel.writeInt(ShardChannel.SOLVE);
+                channel.flush();
+            }
+
+            int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+            for (final ShardChannel channel : channels)
+                leastRoute = Math.min(leastRoute, channel.readInt());
+
+            return leastRoute;
+        } catch (final IOException e) {
+            throw new IllegalStateException("Lost a shard worker.", e);
+        }
+    }
+
+    /**
+     *  Answers every test case of a file, each worker parsing an equal slice
+     *  of the roads of every case. The coordinator only skips over the roads
+     *  to find where the slices start, and relays the road records parsed by
+     *  every worker to the shards owning their ends.
+     */
+    public void solveAll(final String path, final OutputWriter writer) throws IOException {
+        final InputReader reader = InputReader.open(path);
+        final ExecutorService relays = Executors.newFixedThreadPool(channels.length);
+
+        try {
+            for (final ShardChannel channel : channels) {
+                channel.writeInt(ShardChannel.OPEN);
+                channel.writeString(path);
+            }
+
+            final int cases = reader.nextInt();
+            for (int weekendCase = 1; weekendCase <= cases; weekendCase++)
+                writer.println(solveSlices(reader, relays));
+
+        } finally {
+            relays.shutdownNow();
+            reader.close();
+        }
+    }
+
+    private int solveSlices(final InputReader reader, final ExecutorService relays) throws IOException {
+        final long start = SolverMetrics.start();
+        final int locations = reader.nextInt();
+        final int roads = reader.nextInt();
+        final int shards = channels.length;
+        final List<Future<Void>> relayed = new ArrayList<Future<Void>>(shards);
+
+        if (roads < 0)
+            throw new IllegalArgumentException("Invalid negative number of roads.");
+
+        reset(locations);
+        for (int shard = 0; shard < shards; shard++) {
+            final int sliceRoads = (int) ((long) roads * (shard + 1) / shards - (long) roads * shard / shards);
+            final ShardChannel channel = channels[shard];
+
+            synchronized (channel) {
+                channel.writeInt(ShardChannel.PARSE);
+                channel.writeInt(locations);
+                channel.writeInt(shards);
+                channel.writeInt(shard);
+                channel.writeLong(reader.position());
+                channel.writeInt(sliceRoads);
+                channel.flush();
+            }
+            relayed.add(relays.submit(new Relay(channel)));
+            reader.skipInts(3L * sliceRoads);
+        }
+
+        awaitRelays(relayed);
+        SolverMetrics.parsed(start);
+
+        final long solveStart = SolverMetrics.startSolve();
+        try {
+            return solve();
+        } finally {
+            SolverMetrics.solved(solveStart);
+        }
+    }
+
+    /**
+     *  Waits for every relay, even once one has failed, so none of them is
+     *  still writing to the workers when the failure is thrown.
+     */
+    private static void awaitRelays(final List<Future<Void>> relayed) {
+        RuntimeException failure = null;
+
+        for (final Future<Void> relay : relayed) {
+            try {
+                relay.get();
+            } catch (final ExecutionException e) {
+                if (failure == null)
+                    failure = (e.getCause() instanceof RuntimeException) ? (RuntimeException) e.getCause()
+                            : new IllegalStateException("Lost a shard worker.", e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while relaying the roads.", e);
+            }
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     *  Closes the pipes of the workers and waits for them to exit. Workers
+     *  whose pipe fails to close are destroyed. Closing again does nothing.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        IOException failure = null;
+
+        for (int shard = 0; shard < channels.length; shard++) {
+            try {
+                channels[shard].close();
+            } catch (final IOException e) {
+                processes[shard].destroy();
+                if (failure == null)
+                    failure = e;
+            }
+        }
+
+        try {
+            for (final Process process : processes)
+                process.waitFor();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null)
+            throw failure;
+    }
+
+    private void destroy() {
+        for (final Process process : processes) {
+            if (process != null)
+                process.destroy();
+        }
+    }
+
+    /**
+     *  Copies the road records parsed by one worker to the workers owning
+     *  them, until the end of its slice or the failure of the worker.
+     */
+    private final class Relay implements Callable<Void> {
+
+        private final ShardChannel channel;
+        private int[] records = new int[0];
+
+        Relay(final ShardChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public Void call() throws IOException {
+            for (int shard = channel.readInt(); shard != ShardChannel.PARSED; shard = channel.readInt()) {
+                if (shard == ShardChannel.FAILED)
+                    throw new IllegalStateException("A shard worker failed to parse its slice: " + channel.readString());
+
+                final int size = 3 * channel.readInt();
+
+                if (records.length < size)
+                    records = new int[size];
+                for (int index = 0; index < size; index++)
+                    records[index] = channel.readInt();
+
+                final ShardChannel owner = channels[shard];
+                synchronized (owner) {
+                    for (int index = 0; index < size; index += 3)
+                        owner.writeRoad(records[index], records[index + 1], records[index + 2]);
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
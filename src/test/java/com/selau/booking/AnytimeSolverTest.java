@@ -0,0 +1,82 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+
+public class AnytimeSolverTest {
+
+    private final Random random = new Random(23);
+
+    @Test
+    public void answersARouteAboveItsLowerBoundWithoutBudget() {
+        final Solution.AnytimeSolver solver = new Solution.AnytimeSolver(0);
+
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt(30);
+            final int[][] roads = TestNetworks.random(random, locations, 2 + random.nextInt(60));
+            final int leastRoute = TestNetworks.bruteForce(roads);
+            final int route = TestNetworks.solve(solver, locations, roads);
+
+            if (leastRoute != RoadsNetwork.INFINITE_DISTANCE)
+                assertTrue(route + " for " + leastRoute, route != RoadsNetwork.INFINITE_DISTANCE);
+            assertTrue(route + " for " + leastRoute, route >= leastRoute);
+            assertTrue(solver.lowerBound() + " for " + leastRoute, solver.lowerBound() <= leastRoute);
+        }
+    }
+
+    @Test
+    public void answersTheLeastRouteWithALargeBudget() {
+        final Solution.AnytimeSolver solver = new Solution.AnytimeSolver(60000000000L);
+
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt(30);
+            final int[][] roads = (test % 2 == 0) ? TestNetworks.random(random, locations, 2 + random.nextInt(60)) 
+                    : TestNetworks.star(random, locations);
+
+            assertEquals(TestNetworks.bruteForce(roads), TestNetworks.solve(solver, locations, roads));
+            assertTrue(solver.isExact());
+            assertEquals(TestNetworks.bruteForce(roads), solver.lowerBound());
+        }
+    }
+
+    /**
+     *  Location 0 comes first in order and seeds the route through it, far
+     *  longer than the one through location 4 that the scan finds later.
+     */
+    @Test
+    public void answersTheSeedOnceTheBudgetRunsOut() {
+        final int[][] roads = { { 0, 1, 1 }, { 0, 2, 100 }, { 3, 4, 2 }, { 4, 5, 2 } };
+        final Solution.AnytimeSolver expired = new Solution.AnytimeSolver(0);
+        final Solution.AnytimeSolver unbounded = new Solution.AnytimeSolver(60000000000L);
+
+        assertEquals(101, TestNetworks.solve(expired, 6, roads));
+        assertEquals(2, expired.lowerBound());
+        assertFalse(expired.isExact());
+
+        assertEquals(4, TestNetworks.solve(unbounded, 6, roads));
+        assertEquals(4, unbounded.lowerBound());
+        assertTrue(unbounded.isExact());
+    }
+
+    @Test
+    public void answersNoRouteWithoutTwoDistinctNeighbors() {
+        final int[][] roads = { { 0, 1, 1 }, { 1, 0, 2 }, { 2, 3, 5 } };
+        final Solution.AnytimeSolver solver = new Solution.AnytimeSolver(0);
+
+        assertEquals(RoadsNetwork.INFINITE_DISTANCE, TestNetworks.solve(solver, 4, roads));
+        assertTrue(solver.isExact());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsANegativeBudget() {
+        new Solution.AnytimeSolver(-1);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ArgumentsTest {
+
+    @Test
+    public void readsOptionsAndTheInputPath() {
+        final Arguments arguments = Arguments.parse(new String[] { "--budget=50", "--metrics", "cases.txt" });
+
+        assertEquals(50, arguments.longOption("budget", -1));
+        assertEquals("true", arguments.option("metrics", "false"));
+        assertEquals(4, arguments.intOption("workers", 4));
+        assertEquals("cases.txt", arguments.inputPath());
+    }
+
+    @Test
+    public void acceptsAnOptionWithoutTheOthers() {
+        Arguments.parse(new String[] { "--budget=50", "--metrics" }).rejectCombined("budget", "strategy", "workers");
+        Arguments.parse(new String[] { "--strategy=fork-join", "--workers=2" }).rejectCombined("budget", "strategy", "workers");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnOptionCombinedWithAnother() {
+        Arguments.parse(new String[] { "--budget=50", "--workers=2" }).rejectCombined("budget", "strategy", "workers");
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+
+public class CasePipelineTest {
+
+    /**
+     *  Cases made of a single integer, answered after sleeping a random time
+     *  so they complete out of order.
+     */
+    private static final CasePipeline.CaseSolver<Integer> SLOW_ECHO = new CasePipeline.CaseSolver<Integer>() {
+
+        private final Random random = new Random(4);
+
+        @Override
+        public Integer read(final InputReader reader) throws IOException {
+            return Integer.valueOf(reader.nextInt());
+        }
+
+        @Override
+        public int solve(final Integer weekendCase) {
+            final int delay;
+            synchronized (random) {
+                delay = random.nextInt(5);
+            }
+
+            try {
+                Thread.sleep(delay);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 2 * weekendCase.intValue();
+        }
+
+    };
+
+    @Test
+    public void printsAnswersInInputOrder() throws IOException {
+        for (final int workers : new int[] { 1, 2, 4, 8 })
+            assertEquals(expected(200), run(input(200), workers, SLOW_ECHO));
+    }
+
+    @Test
+    public void solvesTheSameAsASingleWorker() throws IOException {
+        final Random random = new Random(44);
+        final StringBuilder input = new StringBuilder("20\n");
+
+        for (int test = 0; test < 20; test++) {
+            final int locations = 3 + random.nextInt(30);
+            final int[][] roads = TestNetworks.random(random, locations, 2 + random.nextInt(60));
+
+            input.append(locations).append(' ').append(roads.length).append('\n');
+            for (final int[] road : roads)
+                input.append(road[0] + 1).append(' ').append(road[1] + 1).append(' ').append(road[2]).append('\n');
+        }
+
+        final CasePipeline.CaseSolver<WeekendRouteSolver> solver = CasePipeline.pooled(new WeekendRouteSolver.Factory() {
+
+            @Override
+            public WeekendRouteSolver create() {
+                return Solution.newSolver(Solution.Strategy.PRIORITY_QUEUE, null);
+            }
+
+        });
+        assertEquals(run(input.toString(), 1, solver), run(input.toString(), 4, solver));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rethrowsTheFailureOfACase() throws IOException {
+        run("2\n3 1\n1 2 0\n3 1\n1 2 1\n", 2, CasePipeline.pooled(new WeekendRouteSolver.Factory() {
+
+            @Override
+            public WeekendRouteSolver create() {
+                return Solution.newSolver(Solution.Strategy.LIGHTEST_ROADS, null);
+            }
+
+        }));
+    }
+
+    private static String input(final int cases) {
+        final StringBuilder input = new StringBuilder().append(cases).append('\n');
+
+        for (int weekendCase = 0; weekendCase < cases; weekendCase++)
+            input.append(weekendCase).append('\n');
+        return input.toString();
+    }
+
+    private static String expected(final int cases) {
+        final StringBuilder output = new StringBuilder();
+
+        for (int weekendCase = 0; weekendCase < cases; weekendCase++)
+            output.append(2 * weekendCase).append('\n');
+        return output.toString();
+    }
+
+    private static <C> String run(final String input, final int workers, final CasePipeline.CaseSolver<C> caseSolver) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputWriter writer = new OutputWriter(output);
+
+        CasePipeline.run(new InputReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII))), writer, workers, caseSolver);
+        writer.flush();
+        return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+
+public class DynamicRoadsTest {
+
+    @Test
+    public void followsRandomAddsRemovesAndUpdates() {
+        final Random random = new Random(13);
+
+        for (int run = 0; run < 30; run++) {
+            final int locations = 3 + random.nextInt(8);
+            final DynamicRoads dynamicRoads = new DynamicRoads(locations);
+            final List<int[]> roads = new ArrayList<int[]>();
+            final List<Integer> ids = new ArrayList<Integer>();
+
+            for (int operation = 0; operation < 300; operation++) {
+                final int kind = random.nextInt(4);
+
+                if ((kind <= 1) || roads.isEmpty()) {
+                    final int[] road = { random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(10) };
+
+                    ids.add(Integer.valueOf(dynamicRoads.addRoad(road[0], road[1], road[2])));
+                    roads.add(road);
+
+                } else if (kind == 2) {
+                    final int index = random.nextInt(roads.size());
+
+                    dynamicRoads.removeRoad(ids.remove(index).intValue());
+                    roads.remove(index);
+
+                } else {
+                    final int index = random.nextInt(roads.size());
+                    final int length = 1 + random.nextInt(10);
+
+                    dynamicRoads.updateLength(ids.get(index).intValue(), length);
+                    roads.get(index)[2] = length;
+                }
+
+                check(dynamicRoads, roads);
+            }
+        }
+    }
+
+    /**
+     *  Every update goes through the heap of the hub, thousands of neighbors
+     *  deep, and the least route is always the two lightest roads of the hub.
+     */
+    @Test
+    public void followsUpdatesAroundAHub() {
+        final Random random = new Random(113);
+        final int locations = 3000;
+        final DynamicRoads dynamicRoads = new DynamicRoads(locations);
+        final int[] ids = new int[locations];
+        final int[] lengths = new int[locations];
+
+        for (int leaf = 1; leaf < locations; leaf++) {
+            lengths[leaf] = 1 + random.nextInt(RoadsNetwork.MAX_LENGTH);
+            ids[leaf] = dynamicRoads.addRoad(0, leaf, lengths[leaf]);
+        }
+
+        for (int operation = 0; operation < 20000; operation++) {
+            final int leaf = 1 + random.nextInt(locations - 1);
+
+            if (lengths[leaf] == 0) {
+                lengths[leaf] = 1 + random.nextInt(RoadsNetwork.MAX_LENGTH);
+                ids[leaf] = dynamicRoads.addRoad(leaf, 0, lengths[leaf]);
+            } else if (random.nextInt(4) == 0) {
+                dynamicRoads.removeRoad(ids[leaf]);
+                lengths[leaf] = 0;
+            } else {
+                lengths[leaf] = 1 + random.nextInt(RoadsNetwork.MAX_LENGTH);
+                dynamicRoads.updateLength(ids[leaf], lengths[leaf]);
+            }
+
+            if (operation % 100 == 0) {
+                assertEquals(twoLightest(lengths), dynamicRoads.leastRoute());
+                assertEquals(0, dynamicRoads.leastRouteMiddle());
+            }
+        }
+    }
+
+    @Test
+    public void reusesTheIdsOfRemovedRoads() {
+        final DynamicRoads dynamicRoads = new DynamicRoads(3);
+        final int road = dynamicRoads.addRoad(0, 1, 5);
+
+        dynamicRoads.addRoad(1, 2, 7);
+        assertEquals(12, dynamicRoads.leastRoute());
+        assertEquals(1, dynamicRoads.leastRouteMiddle());
+
+        dynamicRoads.removeRoad(road);
+        assertEquals(RoadsNetwork.INFINITE_DISTANCE, dynamicRoads.leastRoute());
+        assertEquals(-1, dynamicRoads.leastRouteMiddle());
+
+        assertEquals(road, dynamicRoads.addRoad(2, 0, 1));
+        assertEquals(8, dynamicRoads.leastRoute());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void rejectsRemovedRoads() {
+        final DynamicRoads dynamicRoads = new DynamicRoads(3);
+        final int road = dynamicRoads.addRoad(0, 1, 5);
+
+        dynamicRoads.removeRoad(road);
+        dynamicRoads.updateLength(road, 3);
+    }
+
+    private static int twoLightest(final int[] lengths) {
+        int lightest = Integer.MAX_VALUE;
+        int second = Integer.MAX_VALUE;
+
+        for (final int length : lengths) {
+            if (length == 0)
+                continue;
+
+            if (length < lightest) {
+                second = lightest;
+                lightest = length;
+            } else if (length < second) {
+                second = length;
+            }
+        }
+        return lightest + second;
+    }
+
+    private static void check(final DynamicRoads dynamicRoads, final List<int[]> roads) {
+        final int[][] network = roads.toArray(new int[roads.size()][]);
+        final int leastRoute = TestNetworks.bruteForce(network);
+
+        assertEquals(leastRoute, dynamicRoads.leastRoute());
+        if (leastRoute != RoadsNetwork.INFINITE_DISTANCE)
+            assertEquals(leastRoute, dynamicRoads.leastRouteThrough(dynamicRoads.leastRouteMiddle()));
+        else
+            assertTrue(dynamicRoads.leastRouteMiddle() < 0);
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+
+public class LeastRouteSearchTest {
+
+    private final Random random = new Random(14);
+
+    @Test
+    public void searchesRandomNetworks() {
+        for (int test = 0; test < 300; test++) {
+            final int locations = 2 + random.nextInt(12);
+            final int[][] roads = TestNetworks.random(random, locations, 1 + random.nextInt(3 * locations));
+
+            check(2 + random.nextInt(5), locations, roads);
+        }
+    }
+
+    /**
+     *  Two hubs sharing every other location with roads of the same length
+     *  hold no path of 6 locations but many shorter ones, enough for the
+     *  branch and bound to give up to the color coding.
+     */
+    /**
+     *  Two hubs sharing every other location with roads of the same length
+     *  hold no path of 6 locations but many shorter ones, enough for the
+     *  branch and bound to give up to the color coding.
+     */
+    @Test
+    public void searchesBipartiteNetworksWithAChain() {
+        for (int test = 0; test < 20; test++) {
+            final int[][] roads = bipartite(20 + random.nextInt(20));
+
+            for (int locationsToVisit = 3; locationsToVisit <= 6; locationsToVisit++)
+                check(locationsToVisit, locations(roads), roads);
+        }
+    }
+
+    /**
+     *  One search per number of locations to visit, reset with networks
+     *  growing and shrinking, keeps the buffers and color states of the
+     *  largest one.
+     */
+    @Test
+    public void resetsWithNetworksOfAnySize() {
+        final LeastRouteSearch[] searches = new LeastRouteSearch[7];
+        final Solution.LeastRouteSolver solver = new Solution.LeastRouteSolver(5);
+        final Solution.OffHeapSolver offHeapSolver = new Solution.OffHeapSolver(Solution.Strategy.PRIORITY_QUEUE, null, 4);
+
+        for (int locationsToVisit = 2; locationsToVisit < searches.length; locationsToVisit++)
+            searches[locationsToVisit] = new LeastRouteSearch(locationsToVisit);
+
+        for (int test = 0; test < 100; test++) {
+            final int[][] roads;
+
+            if (test % 4 == 0) {
+                roads = bipartite(20 + random.nextInt(20));
+            } else {
+                final int locations = 2 + random.nextInt(12);
+                roads = TestNetworks.random(random, locations, 1 + random.nextInt(3 * locations));
+            }
+            final int locations = locations(roads);
+
+            for (int locationsToVisit = 2; locationsToVisit < searches.length; locationsToVisit++) {
+                assertEquals(Arrays.deepToString(roads) + " visiting " + locationsToVisit, bruteForce(locationsToVisit, locations, roads),
+                        searches[locationsToVisit].reset(TestNetworks.build(locations, roads)).leastRoute());
+            }
+            assertEquals(bruteForce(5, locations, roads), TestNetworks.solve(solver, locations, roads));
+            assertEquals(bruteForce(4, locations, roads), TestNetworks.solve(offHeapSolver, locations, roads));
+        }
+    }
+
+    @Test
+    public void findsNoRouteThroughMoreLocationsThanTheNetwork() {
+        final int[][] roads = { { 0, 1, 5 }, { 1, 2, 7 } };
+
+        assertEquals(12, new LeastRouteSearch(TestNetworks.build(3, roads), 3).leastRoute());
+        assertEquals(RoadsNetwork.INFINITE_DISTANCE, new LeastRouteSearch(TestNetworks.build(3, roads), 4).leastRoute());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLessThanTwoLocations() {
+        new LeastRouteSearch(TestNetworks.build(3, new int[0][]), 1);
+    }
+
+    private int[][] bipartite(final int shared) {
+        final int locations = shared + 2 + 6;
+        final List<int[]> roads = new ArrayList<int[]>();
+
+        for (int location = 2; location < shared + 2; location++) {
+            roads.add(new int[] { 0, location, 1 });
+            roads.add(new int[] { 1, location, 1 });
+        }
+        for (int location = shared + 2; location + 1 < locations; location++)
+            roads.add(new int[] { location, location + 1, RoadsNetwork.MAX_LENGTH });
+
+        for (int road = random.nextInt(3); road > 0; road--)
+            roads.add(new int[] { random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(RoadsNetwork.MAX_LENGTH) });
+
+        return roads.toArray(new int[roads.size()][]);
+    }
+
+    private static int locations(final int[][] roads) {
+        int locations = 2;
+
+        for (final int[] road : roads)
+            locations = Math.max(locations, Math.max(road[0], road[1]) + 1);
+        return locations;
+    }
+
+    private static void check(final int locationsToVisit, final int locations, final int[][] roads) {
+        assertEquals(Arrays.deepToString(roads) + " visiting " + locationsToVisit,
+                bruteForce(locationsToVisit, locations, roads),
+                new LeastRouteSearch(TestNetworks.build(locations, roads), locationsToVisit).leastRoute());
+    }
+
+    /**
+     *  @return the least simple path through locationsToVisit locations, over
+     *  every such path.
+     */
+    private static int bruteForce(final int locationsToVisit, final int locations, final int[][] roads) {
+        final boolean[] visited = new boolean[locations];
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        for (int start = 0; start < locations; start++) {
+            visited[start] = true;
+            leastRoute = Math.min(leastRoute, bruteForce(roads, visited, start, locationsToVisit - 1));
+            visited[start] = false;
+        }
+        return leastRoute;
+    }
+
+    private static int bruteForce(final int[][] roads, final boolean[] visited, final int location, final int roadsLeft) {
+        if (roadsLeft == 0)
+            return 0;
+
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+        for (final int[] road : roads) {
+            for (int end = 0; end < 2; end++) {
+                final int neighbor = road[1 - end];
+
+                if ((road[end] != location) || visited[neighbor])
+                    continue;
+
+                visited[neighbor] = true;
+                final int route = bruteForce(roads, visited, neighbor, roadsLeft - 1);
+                visited[neighbor] = false;
+
+                if (route != RoadsNetwork.INFINITE_DISTANCE)
+                    leastRoute = Math.min(leastRoute, road[2] + route);
+            }
+        }
+        return leastRoute;
+    }
+
+}
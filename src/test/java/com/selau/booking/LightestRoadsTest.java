@@ -0,0 +1,78 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Differential test of the LIGHTEST_ROADS strategy against PRIORITY_QUEUE
+ *  and a brute force.
+ */
+public class LightestRoadsTest {
+
+    private final Random random = new Random(3);
+
+    @Test
+    public void solvesRandomNetworks() {
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt(30);
+            check(locations, TestNetworks.random(random, locations, 2 + random.nextInt(60)));
+        }
+    }
+
+    @Test
+    public void solvesStars() {
+        for (int test = 0; test < 100; test++) {
+            final int locations = 3 + random.nextInt(50);
+            check(locations, TestNetworks.star(random, locations));
+        }
+    }
+
+    @Test
+    public void ignoresParallelRoadsToTheSameNeighbor() {
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt(4);
+            check(locations, TestNetworks.parallel(random, locations, 2 + random.nextInt(20)));
+        }
+    }
+
+    @Test
+    public void needsTwoDistinctNeighbors() {
+        final int[][] roads = { { 0, 1, 1 }, { 1, 0, 2 }, { 2, 2, 1 } };
+
+        assertEquals(RoadsNetwork.INFINITE_DISTANCE, LightestRoads.of(TestNetworks.build(3, roads)).leastRoute());
+        check(3, roads);
+    }
+
+    @Test
+    public void mergesTheSlotsOfDisjointRoads() {
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt(10);
+            final int[][] roads = (test % 2 == 0) ? TestNetworks.random(random, locations, 2 + random.nextInt(30))
+                    : TestNetworks.parallel(random, locations, 2 + random.nextInt(30));
+            final LightestRoads first = new LightestRoads(locations);
+            final LightestRoads second = new LightestRoads(locations);
+
+            for (final int[] road : roads) {
+                if (road[0] != road[1]) {
+                    (random.nextBoolean() ? first : second).add(road[0], road[1], road[2]);
+                    (random.nextBoolean() ? first : second).add(road[1], road[0], road[2]);
+                }
+            }
+            assertEquals(TestNetworks.bruteForce(roads), first.addAll(second).leastRoute());
+        }
+    }
+
+    private void check(final int locations, final int[][] roads) {
+        final int expected = TestNetworks.bruteForce(roads);
+
+        assertEquals(expected, TestNetworks.solve(Solution.newSolver(Solution.Strategy.LIGHTEST_ROADS, null), locations, roads));
+        assertEquals(expected, TestNetworks.solve(Solution.newSolver(Solution.Strategy.PRIORITY_QUEUE, null), locations, roads));
+        assertEquals(expected, LightestRoads.of(TestNetworks.build(locations, roads)).leastRoute());
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ResultCacheTest {
+
+    private static final int LOCATIONS = 20;
+
+    private final Random random = new Random(22);
+    private int solved;
+
+    @Test
+    public void answersACaseSeenAgainInAnyOrderAndDirection() {
+        final ResultCache cache = new ResultCache(4);
+        final WeekendRouteSolver solver = cache.cached(counting(new Solution.PriorityQueueSolver()));
+        final int[][] roads = TestNetworks.random(random, LOCATIONS, 40);
+
+        assertEquals(TestNetworks.bruteForce(roads), TestNetworks.solve(solver, LOCATIONS, roads));
+        assertEquals(TestNetworks.bruteForce(roads), TestNetworks.solve(solver, LOCATIONS, shuffledAndReversed(roads)));
+
+        assertEquals(1, solved);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    public void solvesCasesDifferingByALengthOrTheLocations() {
+        final ResultCache cache = new ResultCache(4);
+        final WeekendRouteSolver solver = cache.cached(counting(new Solution.PriorityQueueSolver()));
+        final int[][] roads = TestNetworks.random(random, LOCATIONS, 40);
+        final int[][] longer = copy(roads);
+        longer[7][2] = (longer[7][2] % 100) + 1;
+
+        TestNetworks.solve(solver, LOCATIONS, roads);
+        assertEquals(TestNetworks.bruteForce(longer), TestNetworks.solve(solver, LOCATIONS, longer));
+        TestNetworks.solve(solver, LOCATIONS + 1, roads);
+
+        assertEquals(3, solved);
+        assertEquals(0, cache.hits());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedCase() {
+        final ResultCache cache = new ResultCache(2);
+        final WeekendRouteSolver solver = cache.cached(counting(new Solution.LightestRoadsSolver()));
+        final int[][] first = TestNetworks.random(random, LOCATIONS, 30);
+        final int[][] second = TestNetworks.random(random, LOCATIONS, 30);
+        final int[][] third = TestNetworks.random(random, LOCATIONS, 30);
+
+        TestNetworks.solve(solver, LOCATIONS, first);
+        TestNetworks.solve(solver, LOCATIONS, second);
+        TestNetworks.solve(solver, LOCATIONS, first);
+        TestNetworks.solve(solver, LOCATIONS, third);
+        assertEquals(3, solved);
+
+        TestNetworks.solve(solver, LOCATIONS, first);
+        assertEquals(3, solved);
+
+        TestNetworks.solve(solver, LOCATIONS, second);
+        assertEquals(4, solved);
+        assertEquals(2, cache.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnEmptyCapacity() {
+        new ResultCache(0);
+    }
+
+    private WeekendRouteSolver counting(final WeekendRouteSolver solver) {
+        return new WeekendRouteSolver() {
+
+            @Override
+            public void reset(final int locations) {
+                solver.reset(locations);
+            }
+
+            @Override
+            public void addRoad(final int source, final int target, final int length) {
+                solver.addRoad(source, target, length);
+            }
+
+            @Override
+            public int solve() {
+                solved++;
+                return solver.solve();
+            }
+
+        };
+    }
+
+    private int[][] shuffledAndReversed(final int[][] roads) {
+        final List<int[]> shuffled = new ArrayList<int[]>();
+
+        for (final int[] road : roads)
+            shuffled.add(random.nextBoolean() ? new int[] { road[1], road[0], road[2] } : road.clone());
+        Collections.shuffle(shuffled, random);
+
+        return shuffled.toArray(new int[roads.length][]);
+    }
+
+    private static int[][] copy(final int[][] roads) {
+        final int[][] copy = new int[roads.length][];
+
+        for (int road = 0; road < roads.length; road++)
+            copy[road] = roads[road].clone();
+        return copy;
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Compares every query of the index with a scan over all the roads.
+ */
+public class RouteIndexTest {
+
+    private final Random random = new Random(15);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void indexesRandomNetworks() {
+        for (int test = 0; test < 200; test++) {
+            final int locations = 2 + random.nextInt(20);
+            check(locations, TestNetworks.random(random, locations, random.nextInt(3 * locations)));
+        }
+    }
+
+    @Test
+    public void indexesStarsAndParallelRoads() {
+        for (int test = 0; test < 100; test++) {
+            final int locations = 3 + random.nextInt(6);
+
+            check(locations, TestNetworks.star(random, locations));
+            check(locations, TestNetworks.parallel(random, locations, 2 + random.nextInt(20)));
+        }
+    }
+
+    /**
+     *  Enough locations for both passes to split on the pool.
+     */
+    @Test
+    public void indexesANetworkSplitAcrossTasks() {
+        final int locations = 10000;
+        final int[][] roads = TestNetworks.random(random, locations, 15000);
+        final int[][] lightest = lightestRoads(locations, roads);
+        final RouteIndex routeIndex = RouteIndex.build(TestNetworks.build(locations, roads), pool);
+
+        for (int location = 0; location < locations; location += 7) {
+            assertEquals(leastRouteFrom(lightest, location), routeIndex.leastRouteFrom(location));
+            assertEquals(leastRouteAround(lightest, location), routeIndex.leastRouteAround(location));
+        }
+    }
+
+    /**
+     *  Parallel roads between locations 2 and 3, and locations 4 and 5 with
+     *  a single neighbor each.
+     */
+    @Test
+    public void answersTheQueriesOfABatch() throws IOException {
+        final int[][] roads = { { 0, 1, 5 }, { 1, 2, 7 }, { 1, 2, 3 }, { 3, 4, 1 } };
+        final RouteIndex routeIndex = RouteIndex.build(TestNetworks.build(5, roads), pool);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputWriter writer = new OutputWriter(output);
+
+        RouteQueries.answer(routeIndex, reader("6  1 1  2 2  3 3  2 1  3 4  1 2"), writer);
+        writer.flush();
+
+        assertEquals("8 1 2 3\n8 3 2 1\n8 3 2 1\n-1\n-1\n-1\n", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAnUnknownKindOfQuery() throws IOException {
+        final int[][] roads = { { 0, 1, 5 }, { 1, 2, 7 } };
+
+        RouteQueries.answer(RouteIndex.build(TestNetworks.build(3, roads), pool), reader("1 4 1"), new OutputWriter(new ByteArrayOutputStream()));
+    }
+
+    private void check(final int locations, final int[][] roads) {
+        final int[][] lightest = lightestRoads(locations, roads);
+        final RouteIndex routeIndex = RouteIndex.build(TestNetworks.build(locations, roads), pool);
+        final String network = Arrays.deepToString(roads);
+
+        for (int location = 0; location < locations; location++) {
+            final int from = routeIndex.leastRouteFrom(location);
+            final int around = routeIndex.leastRouteAround(location);
+
+            assertEquals(network + " from " + location, leastRouteFrom(lightest, location), from);
+            assertEquals(network + " around " + location, leastRouteAround(lightest, location), around);
+            assertEquals(Math.min(from, around), routeIndex.leastRouteThrough(location));
+
+            if (from == RoadsNetwork.INFINITE_DISTANCE) {
+                assertEquals(RouteIndex.NO_LOCATION, routeIndex.leastRouteFromVia(location));
+                assertEquals(RouteIndex.NO_LOCATION, routeIndex.leastRouteFromEnd(location));
+            } else {
+                assertRoute(lightest, from, location, routeIndex.leastRouteFromVia(location), routeIndex.leastRouteFromEnd(location));
+            }
+            if (around == RoadsNetwork.INFINITE_DISTANCE) {
+                assertEquals(RouteIndex.NO_LOCATION, routeIndex.leastRouteAroundFirst(location));
+                assertEquals(RouteIndex.NO_LOCATION, routeIndex.leastRouteAroundLast(location));
+            } else {
+                assertRoute(lightest, around, routeIndex.leastRouteAroundFirst(location), location, routeIndex.leastRouteAroundLast(location));
+            }
+        }
+    }
+
+    private static void assertRoute(final int[][] lightest, final int length, final int first, final int second, final int third) {
+        assertTrue((first != second) && (second != third) && (first != third));
+        assertEquals(length, lightest[first][second] + lightest[second][third]);
+    }
+
+    /**
+     *  @return the shortest of the parallel roads between every two
+     *  locations, 0 when they are not connected.
+     */
+    private static int[][] lightestRoads(final int locations, final int[][] roads) {
+        final int[][] lightest = new int[locations][locations];
+
+        for (final int[] road : roads) {
+            if ((road[0] != road[1]) && ((lightest[road[0]][road[1]] == 0) || (road[2] < lightest[road[0]][road[1]]))) {
+                lightest[road[0]][road[1]] = road[2];
+                lightest[road[1]][road[0]] = road[2];
+            }
+        }
+        return lightest;
+    }
+
+    private static int leastRouteFrom(final int[][] lightest, final int location) {
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        for (int via = 0; via < lightest.length; via++) {
+            for (int end = 0; (lightest[location][via] > 0) && (end < lightest.length); end++) {
+                if ((end != location) && (lightest[via][end] > 0))
+                    leastRoute = Math.min(leastRoute, lightest[location][via] + lightest[via][end]);
+            }
+        }
+        return leastRoute;
+    }
+
+    private static int leastRouteAround(final int[][] lightest, final int location) {
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        for (int first = 0; first < lightest.length; first++) {
+            for (int last = first + 1; (lightest[location][first] > 0) && (last < lightest.length); last++) {
+                if (lightest[location][last] > 0)
+                    leastRoute = Math.min(leastRoute, lightest[location][first] + lightest[location][last]);
+            }
+        }
+        return leastRoute;
+    }
+
+    private static InputReader reader(final String queries) {
+        return new InputReader(new ByteArrayInputStream(queries.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+}
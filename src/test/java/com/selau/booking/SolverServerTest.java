@@ -0,0 +1,124 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.selau.booking.io.InputReader;
+
+public class SolverServerTest {
+
+    private final Set<String> parserThreads = Collections.synchronizedSet(new HashSet<String>());
+
+    /**
+     *  Cases made of a single integer answered doubled, negative ones failing
+     *  to be read.
+     */
+    private final CasePipeline.CaseSolver<Integer> doubling = new CasePipeline.CaseSolver<Integer>() {
+
+        @Override
+        public Integer read(final InputReader reader) throws IOException {
+            final int weekendCase = reader.nextInt();
+
+            parserThreads.add(Thread.currentThread().getName());
+            if (weekendCase < 0)
+                throw new IllegalArgumentException("Invalid case " + weekendCase + ".");
+
+            return Integer.valueOf(weekendCase);
+        }
+
+        @Override
+        public int solve(final Integer weekendCase) {
+            return 2 * weekendCase.intValue();
+        }
+
+    };
+
+    private SolverServer server;
+
+    @Before
+    public void start() throws IOException {
+        server = new SolverServer(0, 2, 4, 1, doubling, null);
+
+        final Thread serving = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    server.serve();
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+        }, "test-server");
+        serving.setDaemon(true);
+        serving.start();
+    }
+
+    @After
+    public void stop() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void answersEveryInputOfAConnectionInOrder() throws IOException {
+        final BufferedReader answers = request("2 1 2\n3 5 6 7\n");
+
+        assertEquals("2", answers.readLine());
+        assertEquals("4", answers.readLine());
+        assertEquals("10", answers.readLine());
+        assertEquals("12", answers.readLine());
+        assertEquals("14", answers.readLine());
+        assertNull(answers.readLine());
+    }
+
+    @Test
+    public void parsesEveryInputOnTheSameThread() throws IOException {
+        for (int connection = 0; connection < 3; connection++) {
+            final BufferedReader answers = request("1 1\n1 2\n1 3\n");
+
+            for (int answer = 1; answer <= 3; answer++)
+                assertEquals(String.valueOf(2 * answer), answers.readLine());
+            assertNull(answers.readLine());
+        }
+        assertEquals(Collections.singleton("server-parser-1"), parserThreads);
+    }
+
+    @Test
+    public void answersAnErrorLineAfterTheCasesBeforeAFailure() throws IOException {
+        final BufferedReader answers = request("3 1 -1 3\n");
+
+        assertEquals("2", answers.readLine());
+        final String error = answers.readLine();
+        assertTrue(error, error.startsWith("error ") && error.contains("Invalid case -1."));
+        assertNull(answers.readLine());
+    }
+
+    private BufferedReader request(final String input) throws IOException {
+        final Socket socket = new Socket(InetAddress.getByName(null), server.port());
+        final OutputStream output = socket.getOutputStream();
+
+        output.write(input.getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+        socket.shutdownOutput();
+
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+}
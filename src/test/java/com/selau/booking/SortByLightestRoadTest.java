@@ -0,0 +1,83 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+
+public class SortByLightestRoadTest {
+
+    private final Random random = new Random(25);
+
+    @Test
+    public void ordersTheConnectedLocationsByTheirLightestRoad() {
+        for (int test = 0; test < 300; test++) {
+            final int locations = 1 + random.nextInt(40);
+            final RoadsNetwork roadsNetwork = TestNetworks.build(locations, TestNetworks.random(random, locations, random.nextInt(50)));
+            final int[] order = new int[locations];
+            final int connected = Solution.sortByLightestRoad(roadsNetwork, order);
+            final boolean[] sorted = new boolean[locations];
+
+            for (int index = 0; index < connected; index++) {
+                final int location = order[index];
+
+                assertTrue(roadsNetwork.firstRoad(location) < roadsNetwork.lastRoad(location));
+                assertEquals(lightestRoad(roadsNetwork, location), roadsNetwork.length(roadsNetwork.firstRoad(location)));
+                sorted[location] = true;
+
+                if (index > 0) {
+                    final int previous = order[index - 1];
+                    final int previousLength = roadsNetwork.length(roadsNetwork.firstRoad(previous));
+                    final int length = roadsNetwork.length(roadsNetwork.firstRoad(location));
+
+                    assertTrue(previousLength < length || (previousLength == length && previous < location));
+                }
+            }
+            for (int location = 0; location < locations; location++)
+                assertEquals(roadsNetwork.firstRoad(location) < roadsNetwork.lastRoad(location), sorted[location]);
+        }
+    }
+
+    @Test
+    public void sortsTheShortestAndLongestLengths() {
+        final int[][] roads = { { 0, 1, RoadsNetwork.MAX_LENGTH }, { 2, 3, 1 }, { 4, 4, 1 }, { 1, 5, RoadsNetwork.MAX_LENGTH } };
+        final int[] order = new int[7];
+
+        assertEquals(5, Solution.sortByLightestRoad(TestNetworks.build(7, roads), order));
+        assertEquals(2, order[0]);
+        assertEquals(3, order[1]);
+        assertEquals(0, order[2]);
+        assertEquals(1, order[3]);
+        assertEquals(5, order[4]);
+    }
+
+    /**
+     *  One solver answers cases of growing and shrinking sizes, so its order
+     *  buffer is often longer than the locations sorted into it.
+     */
+    @Test
+    public void scansTheOrderUntilTheLightestRoadIsTooLong() {
+        final Solution.PriorityQueueSolver solver = new Solution.PriorityQueueSolver();
+
+        for (int test = 0; test < 300; test++) {
+            final int locations = 3 + random.nextInt((test % 3 == 0) ? 200 : 20);
+            final int[][] roads = (test % 2 == 0) ? TestNetworks.random(random, locations, 2 + random.nextInt(3 * locations))
+                    : TestNetworks.star(random, locations);
+
+            assertEquals(TestNetworks.bruteForce(roads), TestNetworks.solve(solver, locations, roads));
+        }
+    }
+
+    private static int lightestRoad(final RoadsNetwork roadsNetwork, final int location) {
+        int lightest = Integer.MAX_VALUE;
+
+        for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++)
+            lightest = Math.min(lightest, roadsNetwork.length(road));
+        return lightest;
+    }
+
+}
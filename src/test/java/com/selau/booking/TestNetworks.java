@@ -0,0 +1,107 @@
+package com.selau.booking;
+
+import java.util.Random;
+
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+/**
+ *  Small networks for the tests, as {source, target, length} triples with
+ *  0-based locations, and a brute force answer to compare the solvers with.
+ */
+final class TestNetworks {
+
+    private TestNetworks() {
+    }
+
+    /**
+     *  Roads between random locations, self-loops and parallel roads included.
+     */
+    static int[][] random(final Random random, final int locations, final int roads) {
+        final int[][] network = new int[roads][];
+
+        for (int road = 0; road < roads; road++)
+            network[road] = new int[] { random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(RoadsNetwork.MAX_LENGTH) };
+
+        return network;
+    }
+
+    /**
+     *  Location 0 connected to every other one, so it is the middle of every
+     *  route.
+     */
+    static int[][] star(final Random random, final int locations) {
+        final int[][] network = new int[locations - 1][];
+
+        for (int leaf = 1; leaf < locations; leaf++)
+            network[leaf - 1] = new int[] { 0, leaf, 1 + random.nextInt(RoadsNetwork.MAX_LENGTH) };
+
+        return network;
+    }
+
+    /**
+     *  Many parallel roads between a few locations, the lightest ones often
+     *  leading to the same neighbor.
+     */
+    static int[][] parallel(final Random random, final int locations, final int roads) {
+        final int[][] network = new int[roads][];
+
+        for (int road = 0; road < roads; road++) {
+            final int source = random.nextInt(locations);
+            final int target = (source + 1 + random.nextInt(2)) % locations;
+
+            network[road] = new int[] { source, target, 1 + random.nextInt(5) };
+        }
+        return network;
+    }
+
+    static RoadsNetwork build(final int locations, final int[][] roads) {
+        final RoadsNetworkBuilder builder = new RoadsNetworkBuilder();
+
+        builder.reset(locations);
+        for (final int[] road : roads)
+            builder.addRoad(road[0], road[1], road[2]);
+
+        return builder.build();
+    }
+
+    static int solve(final WeekendRouteSolver solver, final int locations, final int[][] roads) {
+        solver.reset(locations);
+
+        for (final int[] road : roads)
+            solver.addRoad(road[0], road[1], road[2]);
+
+        return solver.solve();
+    }
+
+    /**
+     *  @return the least sum of two roads sharing a location and leading to
+     *  two other distinct locations, in O(M^2).
+     */
+    static int bruteForce(final int[][] roads) {
+        int leastRoute = RoadsNetwork.INFINITE_DISTANCE;
+
+        for (int first = 0; first < roads.length; first++) {
+            for (int second = first + 1; second < roads.length; second++) {
+                if (isRoute(roads[first], roads[second]))
+                    leastRoute = Math.min(leastRoute, roads[first][2] + roads[second][2]);
+            }
+        }
+        return leastRoute;
+    }
+
+    private static boolean isRoute(final int[] first, final int[] second) {
+        for (int firstEnd = 0; firstEnd < 2; firstEnd++) {
+            for (int secondEnd = 0; secondEnd < 2; secondEnd++) {
+                final int middle = first[firstEnd];
+                final int start = first[1 - firstEnd];
+                final int end = second[1 - secondEnd];
+
+                if ((middle == second[secondEnd]) && (start != middle) && (end != middle) && (start != end))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.selau.booking;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.selau.booking.dijkstra.Solution.DijkstraSolver;
+import com.selau.booking.dijkstra.Solution.OffHeapDijkstraSolver;
+import com.selau.booking.dijkstra.Solution.QueueType;
+
+/**
+ *  Every solver, reused for cases of growing and shrinking sizes, answers
+ *  each one as if it was new.
+ */
+public class WeekendRouteSolverTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void reusesEveryStrategy() {
+        for (final Solution.Strategy strategy : Solution.Strategy.values())
+            check(Solution.newSolver(strategy, POOL), strategy.name());
+    }
+
+    @Test
+    public void reusesTheOffHeapBuffersOfEveryStrategy() {
+        for (final Solution.Strategy strategy : Solution.Strategy.values())
+            check(new Solution.OffHeapSolver(strategy, POOL, 3), "off-heap " + strategy.name());
+    }
+
+    @Test
+    public void reusesTheOtherSolvers() {
+        check(new Solution.LeastRouteSolver(3), "least route");
+        check(new DijkstraSolver(QueueType.BUCKET), "dijkstra bucket");
+        check(new DijkstraSolver(QueueType.HEAP), "dijkstra heap");
+        check(new OffHeapDijkstraSolver(QueueType.BUCKET, 2), "off-heap dijkstra");
+    }
+
+    /**
+     *  Enough connected locations for the fork/join scan to split its range
+     *  and race on the shared bound, on a pool of two threads.
+     */
+    @Test
+    public void splitsTheForkJoinScanOfLargeNetworks() {
+        final Random random = new Random(5);
+        final WeekendRouteSolver forkJoin = Solution.newSolver(Solution.Strategy.FORK_JOIN, POOL);
+        final WeekendRouteSolver lightestRoads = Solution.newSolver(Solution.Strategy.LIGHTEST_ROADS, null);
+
+        for (int test = 0; test < 20; test++) {
+            final int locations = 2 * Solution.Least2HopsCostTask.THRESHOLD + 1 + random.nextInt(4 * Solution.Least2HopsCostTask.THRESHOLD);
+            final int[][] roads = (test % 4 == 0) ? TestNetworks.star(random, locations)
+                    : TestNetworks.random(random, locations, locations + random.nextInt(2 * locations));
+
+            assertEquals(TestNetworks.solve(lightestRoads, locations, roads), TestNetworks.solve(forkJoin, locations, roads));
+        }
+    }
+
+    private static void check(final WeekendRouteSolver solver, final String name) {
+        final Random random = new Random(11);
+
+        for (int test = 0; test < 150; test++) {
+            final int locations = 3 + random.nextInt((test % 10 == 0) ? 200 : 20);
+            final int[][] roads = TestNetworks.random(random, locations, 2 + random.nextInt(3 * locations));
+
+            assertEquals(name, TestNetworks.bruteForce(roads), TestNetworks.solve(solver, locations, roads));
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.selau.booking.dijkstra;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+public class HopLayeredSearchTest {
+
+    @Test
+    public void findsTheLeastWalksOfRandomNetworks() {
+        for (final Solution.QueueType queueType : Solution.QueueType.values()) {
+            final Random random = new Random(19);
+            final HopLayeredSearch search = new HopLayeredSearch(queueType);
+
+            for (int test = 0; test < 300; test++) {
+                final int locations = 2 + random.nextInt((test % 10 == 0) ? 40 : 10);
+                final int[][] roads = new int[1 + random.nextInt(2 * locations)][];
+
+                for (int road = 0; road < roads.length; road++)
+                    roads[road] = new int[] { random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(RoadsNetwork.MAX_LENGTH) };
+
+                final RoadsNetwork roadsNetwork = build(locations, roads);
+                for (int walkRoads = 1; walkRoads <= 4; walkRoads++) {
+                    assertEquals(queueType + " " + Arrays.deepToString(roads) + " in " + walkRoads + " roads",
+                            bruteForce(locations, roads, walkRoads), search.leastWalk(roadsNetwork, walkRoads));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void goesAroundATriangleWithoutTurningBack() {
+        final int[][] roads = { { 0, 1, 1 }, { 1, 2, 2 }, { 2, 0, 3 }, { 0, 3, 50 } };
+        final HopLayeredSearch search = new HopLayeredSearch(Solution.QueueType.HEAP);
+
+        assertEquals(3, search.leastWalk(build(4, roads), 2));
+        assertEquals(6, search.leastWalk(build(4, roads), 3));
+        assertEquals(7, search.leastWalk(build(4, roads), 4));
+    }
+
+    @Test
+    public void findsNoWalkOnASingleRoad() {
+        final int[][] roads = { { 0, 1, 1 }, { 0, 1, 2 } };
+
+        assertEquals(RoadsNetwork.INFINITE_DISTANCE, new HopLayeredSearch(Solution.QueueType.BUCKET).leastWalk(build(2, roads), 2));
+    }
+
+    private static RoadsNetwork build(final int locations, final int[][] roads) {
+        final RoadsNetworkBuilder builder = new RoadsNetworkBuilder();
+
+        builder.reset(locations);
+        for (final int[] road : roads)
+            builder.addRoad(road[0], road[1], road[2]);
+
+        return builder.build();
+    }
+
+    /**
+     *  @return the least walk of exactly walkRoads roads never going back to
+     *  the location it just left, by layers over (location, previous).
+     */
+    private static int bruteForce(final int locations, final int[][] roads, final int walkRoads) {
+        long[][] walks = new long[locations][locations];
+
+        for (final long[] walk : walks)
+            Arrays.fill(walk, Long.MAX_VALUE);
+        for (final int[] road : roads) {
+            if (road[0] != road[1]) {
+                walks[road[1]][road[0]] = Math.min(walks[road[1]][road[0]], road[2]);
+                walks[road[0]][road[1]] = Math.min(walks[road[0]][road[1]], road[2]);
+            }
+        }
+
+        for (int taken = 1; taken < walkRoads; taken++) {
+            final long[][] longerWalks = new long[locations][locations];
+
+            for (final long[] walk : longerWalks)
+                Arrays.fill(walk, Long.MAX_VALUE);
+            for (int location = 0; location < locations; location++) {
+                for (int previous = 0; previous < locations; previous++) {
+                    if (walks[location][previous] == Long.MAX_VALUE)
+                        continue;
+
+                    for (final int[] road : roads) {
+                        for (int end = 0; end < 2; end++) {
+                            final int neighbor = road[1 - end];
+
+                            if ((road[end] == location) && (neighbor != location) && (neighbor != previous))
+                                longerWalks[neighbor][location] = Math.min(longerWalks[neighbor][location], walks[location][previous] + road[2]);
+                        }
+                    }
+                }
+            }
+            walks = longerWalks;
+        }
+
+        long leastWalk = Long.MAX_VALUE;
+        for (final long[] walk : walks) {
+            for (final long length : walk)
+                leastWalk = Math.min(leastWalk, length);
+        }
+        return (leastWalk == Long.MAX_VALUE) ? RoadsNetwork.INFINITE_DISTANCE : (int) leastWalk;
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.selau.booking.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.selau.booking.Solution;
+import com.selau.booking.generator.RoadsNetworkGenerator.Degrees;
+import com.selau.booking.generator.RoadsNetworkGenerator.Shape;
+import com.selau.booking.io.InputReader;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+import com.selau.booking.network.RoadsNetworkBuilder;
+
+public class RoadsNetworkGeneratorTest {
+
+    @Test
+    public void repeatsTheInputOfASeed() throws IOException {
+        for (final Shape shape : Shape.values()) {
+            final String input = generate(configured(7, shape), 3, 50, 200);
+
+            assertEquals(shape.name(), input, generate(configured(7, shape), 3, 50, 200));
+            assertNotEquals(shape.name(), input, generate(configured(8, shape), 3, 50, 200));
+        }
+    }
+
+    /**
+     *  Small cases of every shape, parsed back and solved, including cases
+     *  with more roads than the shape has.
+     */
+    @Test
+    public void generatesCasesWithASolution() throws IOException {
+        final Random random = new Random(10);
+
+        for (final Shape shape : Shape.values()) {
+            for (int test = 0; test < 50; test++) {
+                final int locations = 4 + random.nextInt(20);
+                final int roads = 2 + random.nextInt(60);
+                final RoadsNetworkGenerator generator = configured(random.nextLong(), shape).lengths(5, 9);
+                final InputReader reader = reader(generate(generator, 2, locations, roads));
+
+                assertEquals(2, reader.nextInt());
+                for (int weekendCase = 0; weekendCase < 2; weekendCase++) {
+                    final RoadsNetwork roadsNetwork = RoadsNetworkBuilder.read(reader).build();
+                    final int leastRoute = Solution.calculateLeastDistanceWith2Hops(roadsNetwork, Solution.Strategy.PRIORITY_QUEUE, null);
+
+                    assertEquals(locations, roadsNetwork.locations());
+                    assertTrue(shape + " " + locations + " " + roads, (leastRoute >= 10) && (leastRoute <= 18));
+                }
+                assertFalse(reader.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void laysOutTheRoadsOfTheShapes() throws IOException {
+        final int[][] hub = roads(generate(new RoadsNetworkGenerator(1).shape(Shape.HUB), 1, 5, 4), 4);
+        final int[][] chain = roads(generate(new RoadsNetworkGenerator(1).shape(Shape.CHAIN), 1, 5, 4), 4);
+
+        for (int road = 0; road < 4; road++) {
+            assertRoad(hub[road], 1, road + 2);
+            assertRoad(chain[road], road + 1, road + 2);
+        }
+    }
+
+    /**
+     *  The pairs of the 5 locations needed for 10 roads, then, with 4
+     *  locations only, their 6 pairs followed by random roads.
+     */
+    @Test
+    public void fallsBackToRandomRoadsOnceTheDenseShapeIsComplete() throws IOException {
+        final int[][] dense = roads(generate(new RoadsNetworkGenerator(3).shape(Shape.DENSE), 1, 100, 10), 10);
+        final int[][] small = roads(generate(new RoadsNetworkGenerator(3).shape(Shape.DENSE), 1, 4, 30), 30);
+        int road = 0;
+
+        for (int source = 1; source <= 5; source++) {
+            for (int target = source + 1; target <= 5; target++)
+                assertRoad(dense[road++], source, target);
+        }
+
+        road = 0;
+        for (int source = 1; source <= 4; source++) {
+            for (int target = source + 1; target <= 4; target++)
+                assertRoad(small[road++], source, target);
+        }
+        assertRandom(small, road, 4);
+    }
+
+    /**
+     *  The 12 roads of a 3 x 3 grid within 10 locations, then random roads
+     *  reaching location 10 too.
+     */
+    @Test
+    public void fallsBackToRandomRoadsOnceTheGridIsComplete() throws IOException {
+        final int[][] grid = roads(generate(new RoadsNetworkGenerator(4).shape(Shape.GRID), 1, 10, 200), 200);
+        final Set<Long> gridRoads = new HashSet<Long>();
+
+        for (int road = 0; road < 12; road++) {
+            final int source = grid[road][0] - 1;
+            final int target = grid[road][1] - 1;
+
+            assertTrue(((target == source + 1) && (target % 3 != 0)) || (target == source + 3));
+            assertTrue(target < 9);
+            assertTrue(gridRoads.add((long) source << 32 | target));
+        }
+        assertRandom(grid, 12, 10);
+
+        boolean lastReached = false;
+        for (int road = 12; road < grid.length; road++)
+            lastReached |= (grid[road][0] == 10) || (grid[road][1] == 10);
+        assertTrue(lastReached);
+    }
+
+    private static RoadsNetworkGenerator configured(final long seed, final Shape shape) {
+        return new RoadsNetworkGenerator(seed).shape(shape).degrees(Degrees.POWER_LAW, 1.5).duplicates(0.2);
+    }
+
+    private static String generate(final RoadsNetworkGenerator generator, final int cases, final int locations, final int roads) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputWriter writer = new OutputWriter(output);
+
+        generator.generate(cases, locations, roads, writer);
+        writer.flush();
+        return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+    }
+
+    private static InputReader reader(final String input) {
+        return new InputReader(new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     *  @return the roads of the single case of input, as 1-based ends and length.
+     */
+    private static int[][] roads(final String input, final int roads) throws IOException {
+        final InputReader reader = reader(input);
+        final int[][] network = new int[roads][3];
+
+        assertEquals(1, reader.nextInt());
+        reader.nextInt();
+        assertEquals(roads, reader.nextInt());
+        for (final int[] road : network) {
+            road[0] = reader.nextInt();
+            road[1] = reader.nextInt();
+            road[2] = reader.nextInt();
+            assertTrue((road[2] >= 1) && (road[2] <= RoadsNetwork.MAX_LENGTH));
+        }
+        assertFalse(reader.hasNext());
+        return network;
+    }
+
+    private static void assertRoad(final int[] road, final int source, final int target) {
+        assertEquals(source, road[0]);
+        assertEquals(target, road[1]);
+    }
+
+    private static void assertRandom(final int[][] roads, final int from, final int locations) {
+        for (int road = from; road < roads.length; road++) {
+            assertTrue((roads[road][0] >= 1) && (roads[road][0] <= locations));
+            assertTrue((roads[road][1] >= 1) && (roads[road][1] <= locations));
+            assertNotEquals(roads[road][0], roads[road][1]);
+        }
+    }
+
+}
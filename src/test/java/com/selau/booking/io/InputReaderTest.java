@@ -0,0 +1,174 @@
+package com.selau.booking.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InputReaderTest {
+
+    private static final String BLANKS = " \n\t\r";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(2);
+    private final int[] values = new int[30000];
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     *  About 200 KB of numbers, so some of them straddle the 64 KB buffer of
+     *  streams.
+     */
+    public InputReaderTest() {
+        for (int index = 0; index < values.length; index++) {
+            values[index] = (index % 3 == 0) ? random.nextInt() : random.nextInt(1000) - 500;
+            text.append(values[index]);
+
+            for (int blank = 1 + random.nextInt(2); blank > 0; blank--)
+                text.append(BLANKS.charAt(random.nextInt(BLANKS.length())));
+        }
+    }
+
+    @Test
+    public void readsAStreamAcrossItsBuffer() throws IOException {
+        check(new InputReader(new ByteArrayInputStream(bytes(text.toString()))));
+    }
+
+    @Test
+    public void readsAStreamGivingAFewBytesAtATime() throws IOException {
+        check(new InputReader(trickling(bytes(text.toString()))));
+    }
+
+    @Test
+    public void readsAFileAcrossItsMappingWindows() throws IOException {
+        final String path = write(text.toString());
+
+        check(InputReader.open(path));
+        check(InputReader.open(path, 0, 7));
+        check(InputReader.open(path, 0, 4096));
+    }
+
+    @Test
+    public void resumesAtThePositionOfASkip() throws IOException {
+        final String path = write(text.toString());
+        final InputReader skipping = InputReader.open(path, 0, 4096);
+
+        for (int skipped = 0; skipped + 1 < values.length; skipped += 1 + random.nextInt(3000)) {
+            final InputReader reader = InputReader.open(path, 0, 4096);
+
+            reader.skipInts(skipped);
+            assertEquals(values[skipped], reader.nextInt());
+
+            final InputReader resumed = InputReader.open(path, reader.position(), 64);
+            assertEquals(values[skipped + 1], resumed.nextInt());
+            resumed.close();
+            reader.close();
+        }
+
+        skipping.skipInts(values.length);
+        assertFalse(skipping.hasNext());
+        assertEquals(bytes(text.toString()).length, skipping.position());
+        skipping.close();
+    }
+
+    @Test
+    public void countsThePositionOfAStream() throws IOException {
+        final InputReader reader = new InputReader(trickling(bytes("  12 -345\n6")));
+
+        assertEquals(0, reader.position());
+        assertEquals(12, reader.nextInt());
+        assertEquals(5, reader.position());
+        reader.skipInts(1);
+        assertEquals(10, reader.position());
+        assertEquals(6, reader.nextInt());
+        assertEquals(11, reader.position());
+    }
+
+    @Test
+    public void readsTheExtremeValues() throws IOException {
+        final InputReader reader = new InputReader(new ByteArrayInputStream(bytes("-2147483648 2147483647 -0 0")));
+
+        assertEquals(Integer.MIN_VALUE, reader.nextInt());
+        assertEquals(Integer.MAX_VALUE, reader.nextInt());
+        assertEquals(0, reader.nextInt());
+        assertEquals(0, reader.nextInt());
+    }
+
+    /**
+     *  A byte above 0x7F is an invalid character, not the end of the input.
+     */
+    @Test(expected = InputMismatchException.class)
+    public void rejectsNonAsciiBytes() throws IOException {
+        final InputReader reader = new InputReader(new ByteArrayInputStream(new byte[] { '1', ' ', (byte) 0xc3, (byte) 0xa9, ' ', '2' }));
+
+        assertEquals(1, reader.nextInt());
+        assertTrue(reader.hasNext());
+        reader.nextInt();
+    }
+
+    @Test(expected = InputMismatchException.class)
+    public void rejectsOtherCharacters() throws IOException {
+        new InputReader(new ByteArrayInputStream(bytes("12 x"))).skipInts(1);
+        new InputReader(new ByteArrayInputStream(bytes("x"))).nextInt();
+    }
+
+    private void check(final InputReader reader) throws IOException {
+        for (final int value : values) {
+            assertTrue(reader.hasNext());
+            assertEquals(value, reader.nextInt());
+        }
+        assertFalse(reader.hasNext());
+
+        try {
+            reader.nextInt();
+            throw new AssertionError("Read past the end of the input.");
+        } catch (final NoSuchElementException e) {
+            reader.close();
+        }
+    }
+
+    private String write(final String content) throws IOException {
+        final File file = folder.newFile();
+        final FileOutputStream output = new FileOutputStream(file);
+
+        try {
+            output.write(bytes(content));
+        } finally {
+            output.close();
+        }
+        return file.getPath();
+    }
+
+    private static byte[] bytes(final String content) {
+        return content.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     *  @return a stream giving at most 3 bytes per read, as a slow pipe.
+     */
+    private static InputStream trickling(final byte[] content) {
+        return new ByteArrayInputStream(content) {
+
+            @Override
+            public synchronized int read(final byte[] buffer, final int offset, final int length) {
+                return super.read(buffer, offset, Math.min(3, length));
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.selau.booking.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OutputWriterTest {
+
+    @Test
+    public void writesTheExtremeValues() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputWriter writer = new OutputWriter(output);
+
+        writer.print(Integer.MIN_VALUE);
+        writer.print(' ');
+        writer.print(Integer.MAX_VALUE);
+        writer.print(' ');
+        writer.println(0);
+        writer.flush();
+
+        assertEquals("-2147483648 2147483647 0\n", new String(output.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     *  Enough values to flush the 8 KB buffer many times, read back.
+     */
+    @Test
+    public void roundTripsThroughTheInputReader() throws IOException {
+        final Random random = new Random(2);
+        final int[] values = new int[20000];
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final OutputWriter writer = new OutputWriter(output);
+
+        values[0] = Integer.MIN_VALUE;
+        values[1] = Integer.MAX_VALUE;
+        for (int index = 2; index < values.length; index++)
+            values[index] = random.nextInt();
+
+        for (final int value : values)
+            writer.println(value);
+        writer.close();
+
+        final InputReader reader = new InputReader(new ByteArrayInputStream(output.toByteArray()));
+        for (final int value : values)
+            assertEquals(value, reader.nextInt());
+        reader.close();
+    }
+
+}
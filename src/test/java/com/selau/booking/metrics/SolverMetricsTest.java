@@ -0,0 +1,153 @@
+package com.selau.booking.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.selau.booking.Solution;
+import com.selau.booking.WeekendRouteSolver;
+
+/**
+ *  The metrics are shared by the whole JVM, so every test starts from reset
+ *  counters and leaves them enabled.
+ */
+public class SolverMetricsTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final SolverMetrics metrics = SolverMetrics.instance();
+
+    @Before
+    public void resetMetrics() {
+        SolverMetrics.enable();
+        metrics.reset();
+    }
+
+    /**
+     *  The build and the solve timers add up to the time between startSolve()
+     *  and solved(), without overlapping.
+     */
+    @Test
+    public void leavesTheBuildOutOfTheSolve() throws InterruptedException {
+        final long before = System.nanoTime();
+        final long solveStart = SolverMetrics.startSolve();
+        final long buildStart = SolverMetrics.start();
+
+        Thread.sleep(100);
+        SolverMetrics.built(buildStart);
+        Thread.sleep(10);
+        SolverMetrics.solved(solveStart);
+        final long elapsed = System.nanoTime() - before;
+
+        assertEquals(1, metrics.getCases());
+        assertTrue(metrics.getBuildNanos() >= 100 * MILLIS);
+        assertTrue(metrics.getSolveNanos() >= 10 * MILLIS);
+        assertTrue(metrics.getSolveNanos() + metrics.getBuildNanos() <= elapsed);
+    }
+
+    /**
+     *  Only the builds of the solving thread since its startSolve() are left
+     *  out.
+     */
+    @Test
+    public void keepsTheBuildsOfOtherSolvesInTheSolve() throws InterruptedException {
+        final long earlierBuild = SolverMetrics.start();
+        SolverMetrics.built(earlierBuild - 1000 * MILLIS);
+
+        final long solveStart = SolverMetrics.startSolve();
+        final Thread other = new Thread() {
+
+            @Override
+            public void run() {
+                final long buildStart = SolverMetrics.start();
+
+                try {
+                    Thread.sleep(50);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                SolverMetrics.built(buildStart);
+            }
+
+        };
+        other.start();
+        other.join();
+        SolverMetrics.solved(solveStart);
+
+        assertTrue(metrics.getBuildNanos() >= 1050 * MILLIS);
+        assertTrue(metrics.getSolveNanos() >= 50 * MILLIS);
+        assertTrue(metrics.getSolveNanos() < 1000 * MILLIS);
+    }
+
+    /**
+     *  A path of 4 locations and a lone one: the scan polls or prunes each of
+     *  the 4 locations having roads.
+     */
+    @Test
+    public void countsTheLocationsOfASolve() {
+        final WeekendRouteSolver solver = new Solution.PriorityQueueSolver();
+
+        solver.reset(5);
+        solver.addRoad(0, 1, 1);
+        solver.addRoad(1, 2, 2);
+        solver.addRoad(2, 3, 3);
+
+        final long solveStart = SolverMetrics.startSolve();
+        assertEquals(3, solver.solve());
+        SolverMetrics.solved(solveStart);
+
+        assertEquals(1, metrics.getCases());
+        assertEquals(4, metrics.getNodesPolled() + metrics.getNodesPruned());
+        assertTrue(metrics.getNodesPolled() > 0);
+        assertTrue(metrics.getRoadsScanned() > 0);
+        assertTrue(metrics.getBuildNanos() > 0);
+    }
+
+    @Test
+    public void countsTheCasesOfATimeBudget() throws IOException {
+        final File input = folder.newFile();
+        final FileOutputStream output = new FileOutputStream(input);
+
+        try {
+            output.write("2\n3 2\n1 2 1\n2 3 1\n4 1\n1 2 5\n".getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            output.close();
+        }
+
+        final PrintStream out = System.out;
+        final PrintStream err = System.err;
+        final ByteArrayOutputStream answers = new ByteArrayOutputStream();
+        final ByteArrayOutputStream summary = new ByteArrayOutputStream();
+
+        try {
+            System.setOut(new PrintStream(answers, true, "US-ASCII"));
+            System.setErr(new PrintStream(summary, true, "US-ASCII"));
+            Solution.main(new String[] { "--budget=1000", "--metrics", input.getPath() });
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+
+        assertEquals("2 2\n" + Integer.MAX_VALUE + " " + Integer.MAX_VALUE + "\n", new String(answers.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(2, metrics.getCases());
+        assertTrue(metrics.getParseNanos() > 0);
+        assertTrue(metrics.getBuildNanos() > 0);
+        assertTrue(new String(summary.toByteArray(), StandardCharsets.US_ASCII).startsWith("{\"cases\":2,"));
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.selau.booking.network;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongIntHashMapTest {
+
+    private static final int ABSENT = -1;
+    private static final int MIN_SLOTS = 16;
+
+    @Test
+    public void followsAModelThroughPutsAndRemovals() {
+        final Random random = new Random(20);
+        final LongIntHashMap map = new LongIntHashMap();
+        final Map<Long, Integer> model = new HashMap<Long, Integer>();
+
+        for (int operation = 0; operation < 20000; operation++) {
+            final long key = LongIntHashMap.pair(random.nextInt(40), random.nextInt(40));
+
+            if (random.nextInt(3) == 0) {
+                final Integer removed = model.remove(Long.valueOf(key));
+                assertEquals((removed != null) ? removed.intValue() : ABSENT, map.remove(key, ABSENT));
+            } else {
+                final int value = random.nextInt(1000);
+
+                model.put(Long.valueOf(key), Integer.valueOf(value));
+                map.put(key, value);
+            }
+
+            final long probe = LongIntHashMap.pair(random.nextInt(40), random.nextInt(40));
+            final Integer expected = model.get(Long.valueOf(probe));
+            assertEquals((expected != null) ? expected.intValue() : ABSENT, map.get(probe, ABSENT));
+        }
+
+        for (final Map.Entry<Long, Integer> entry : model.entrySet())
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey().longValue(), ABSENT));
+    }
+
+    /**
+     *  Keys sharing their home slot, the last ones wrapping around the end of
+     *  the table, stay reachable whichever of them is removed first.
+     */
+    @Test
+    public void shiftsCollidingKeysBackOnRemoval() {
+        final List<Long> colliding = keysWithHome(MIN_SLOTS - 2, 4);
+        colliding.addAll(keysWithHome(MIN_SLOTS - 1, 2));
+
+        for (int removed = 0; removed < colliding.size(); removed++) {
+            final LongIntHashMap map = new LongIntHashMap();
+
+            for (int index = 0; index < colliding.size(); index++)
+                map.put(colliding.get(index).longValue(), index);
+
+            assertEquals(removed, map.remove(colliding.get(removed).longValue(), ABSENT));
+            assertEquals(ABSENT, map.remove(colliding.get(removed).longValue(), ABSENT));
+
+            for (int index = 0; index < colliding.size(); index++) {
+                if (index != removed)
+                    assertEquals(index, map.get(colliding.get(index).longValue(), ABSENT));
+            }
+        }
+    }
+
+    @Test
+    public void keepsEntriesWhileGrowing() {
+        final LongIntHashMap map = new LongIntHashMap();
+
+        for (int location = 0; location < 1000; location++)
+            map.put(LongIntHashMap.pair(location, location + 1), location);
+
+        for (int location = 0; location < 1000; location++)
+            assertEquals(location, map.get(LongIntHashMap.pair(location + 1, location), ABSENT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeKeys() {
+        new LongIntHashMap().put(-1, 0);
+    }
+
+    private static List<Long> keysWithHome(final int home, final int count) {
+        final List<Long> keys = new ArrayList<Long>();
+
+        for (long key = 0; keys.size() < count; key++) {
+            if ((LongIntHashMap.hash(key) & (MIN_SLOTS - 1)) == home)
+                keys.add(Long.valueOf(key));
+        }
+        return keys;
+    }
+
+}
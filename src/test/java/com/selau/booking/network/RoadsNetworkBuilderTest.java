@@ -0,0 +1,23 @@
+package com.selau.booking.network;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class RoadsNetworkBuilderTest {
+
+    @Test
+    public void acceptsRoadsUpToTheMaximumLength() {
+        final RoadsNetworkBuilder builder = new RoadsNetworkBuilder();
+
+        builder.reset(2);
+        builder.addRoad(0, 1, RoadsNetwork.MAX_LENGTH);
+        assertEquals(RoadsNetwork.MAX_LENGTH, builder.build().length(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRoadsLongerThanTheConstraints() {
+        RoadsNetworkBuilder.validateRoad(2, 0, 1, 101);
+    }
+
+}
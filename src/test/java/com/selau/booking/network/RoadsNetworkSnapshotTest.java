@@ -0,0 +1,178 @@
+package com.selau.booking.network;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RoadsNetworkSnapshotTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void loadsTheNetworkItWrote() throws IOException {
+        final Random random = new Random(16);
+
+        for (int test = 0; test < 20; test++) {
+            final RoadsNetwork roadsNetwork = randomNetwork(random, 1 + random.nextInt(50), random.nextInt(200));
+            final String path = folder.newFile().getPath();
+
+            RoadsNetworkSnapshot.write(roadsNetwork, path);
+            final RoadsNetwork loaded = RoadsNetworkSnapshot.load(path);
+
+            assertEquals(roadsNetwork.locations(), loaded.locations());
+            for (int location = 0; location < roadsNetwork.locations(); location++) {
+                assertEquals(roadsNetwork.firstRoad(location), loaded.firstRoad(location));
+                assertEquals(roadsNetwork.lastRoad(location), loaded.lastRoad(location));
+
+                for (int road = roadsNetwork.firstRoad(location); road < roadsNetwork.lastRoad(location); road++) {
+                    assertEquals(roadsNetwork.neighbor(road), loaded.neighbor(road));
+                    assertEquals(roadsNetwork.length(road), loaded.length(road));
+                }
+                for (int target = 0; target < roadsNetwork.locations(); target++)
+                    assertEquals(roadsNetwork.distance(location, target), loaded.distance(location, target));
+            }
+        }
+    }
+
+    @Test
+    public void rejectsACorruptedSnapshot() throws IOException {
+        final File file = snapshot();
+        final RandomAccessFile corrupted = new RandomAccessFile(file, "rw");
+
+        try {
+            corrupted.seek(corrupted.length() - 1);
+            final int length = corrupted.read();
+
+            corrupted.seek(corrupted.length() - 1);
+            corrupted.write(length ^ 0x7f);
+        } finally {
+            corrupted.close();
+        }
+        assertRejected(file, "Checksum mismatch");
+    }
+
+    /**
+     *  Broken arrays with a checksum computed after breaking them, as written
+     *  by a faulty writer.
+     */
+    @Test
+    public void rejectsInvalidRoadsWithAMatchingChecksum() throws IOException {
+        final RoadsNetwork roadsNetwork = randomNetwork(new Random(61), 10, 30);
+        final int neighborsPosition = RoadsNetworkSnapshot.HEADER_SIZE + 4 * (roadsNetwork.locations() + 1);
+        final int lengthsPosition = neighborsPosition + 4 * roadsNetwork.lastRoad(roadsNetwork.locations() - 1);
+        int location = 3;
+
+        while (roadsNetwork.firstRoad(location) == roadsNetwork.lastRoad(location))
+            location++;
+        assertTrue(roadsNetwork.firstRoad(location) > 0);
+
+        final String message = "Invalid roads of location " + location + " ";
+        assertRejected(corrupt(RoadsNetworkSnapshot.HEADER_SIZE + 4 * (location + 1), roadsNetwork.firstRoad(location) - 1), message);
+        assertRejected(corrupt(neighborsPosition + 4 * roadsNetwork.firstRoad(location), roadsNetwork.locations()), message);
+        assertRejected(corrupt(neighborsPosition + 4 * (roadsNetwork.lastRoad(location) - 1), -1), message);
+
+        final File length = snapshot();
+        final RandomAccessFile corrupted = new RandomAccessFile(length, "rw");
+        try {
+            corrupted.seek(lengthsPosition + roadsNetwork.lastRoad(location) - 1);
+            corrupted.write(RoadsNetwork.MAX_LENGTH + 1);
+            writeChecksum(corrupted);
+        } finally {
+            corrupted.close();
+        }
+        assertRejected(length, message);
+    }
+
+    @Test
+    public void rejectsATruncatedSnapshot() throws IOException {
+        final File file = snapshot();
+        final RandomAccessFile truncated = new RandomAccessFile(file, "rw");
+
+        try {
+            truncated.setLength(truncated.length() - 1);
+        } finally {
+            truncated.close();
+        }
+        assertRejected(file, "truncated");
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        final File file = snapshot();
+        final RandomAccessFile other = new RandomAccessFile(file, "rw");
+
+        try {
+            other.write('#');
+        } finally {
+            other.close();
+        }
+        assertRejected(file, "not a roads network snapshot");
+    }
+
+    private File snapshot() throws IOException {
+        final File file = folder.newFile();
+
+        RoadsNetworkSnapshot.write(randomNetwork(new Random(61), 10, 30), file.getPath());
+        return file;
+    }
+
+    /**
+     *  @return a snapshot with the little-endian int at position replaced by
+     *  value, and its checksum updated.
+     */
+    private File corrupt(final int position, final int value) throws IOException {
+        final File file = snapshot();
+        final RandomAccessFile corrupted = new RandomAccessFile(file, "rw");
+
+        try {
+            corrupted.seek(position);
+            corrupted.writeInt(Integer.reverseBytes(value));
+            writeChecksum(corrupted);
+        } finally {
+            corrupted.close();
+        }
+        return file;
+    }
+
+    private static void writeChecksum(final RandomAccessFile file) throws IOException {
+        final byte[] payload = new byte[(int) file.length() - RoadsNetworkSnapshot.HEADER_SIZE];
+        final CRC32 checksum = new CRC32();
+
+        file.seek(RoadsNetworkSnapshot.HEADER_SIZE);
+        file.readFully(payload);
+        checksum.update(payload);
+        file.seek(16);
+        file.writeLong(Long.reverseBytes(checksum.getValue()));
+    }
+
+    private static void assertRejected(final File file, final String message) {
+        try {
+            RoadsNetworkSnapshot.load(file.getPath());
+            fail("Loaded a broken snapshot.");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private static RoadsNetwork randomNetwork(final Random random, final int locations, final int roads) {
+        final RoadsNetworkBuilder builder = new RoadsNetworkBuilder();
+
+        builder.reset(locations);
+        for (int road = 0; road < roads; road++)
+            builder.addRoad(random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(RoadsNetwork.MAX_LENGTH));
+
+        return builder.build();
+    }
+
+}
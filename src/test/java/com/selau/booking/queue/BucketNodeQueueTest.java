@@ -0,0 +1,99 @@
+package com.selau.booking.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BucketNodeQueueTest {
+
+    private static final int NODES = 50;
+    private static final int MAX_LENGTH = 10;
+    private static final int ABSENT = -1;
+
+    @Test
+    public void pollsInOrderOfDistanceLikeAModel() {
+        final Random random = new Random(7);
+        final BucketNodeQueue queue = new BucketNodeQueue(NODES, MAX_LENGTH);
+        final int[] model = new int[NODES];
+
+        for (int run = 0; run < 20; run++) {
+            queue.clear();
+            Arrays.fill(model, ABSENT);
+            int current = random.nextInt(1000);
+
+            for (int operation = 0; operation < 2000; operation++) {
+                if (random.nextInt(3) > 0) {
+                    final int node = random.nextInt(NODES);
+                    final int distance = current + random.nextInt(MAX_LENGTH + 1);
+
+                    queue.offer(node, distance);
+                    if ((model[node] == ABSENT) || (distance < model[node]))
+                        model[node] = distance;
+
+                } else if (! queue.isEmpty()) {
+                    final int distance = queue.peekDistance();
+                    final int node = queue.poll();
+
+                    assertEquals(least(model), distance);
+                    assertEquals(distance, model[node]);
+                    model[node] = ABSENT;
+                    current = distance;
+                }
+
+                for (int node = 0; node < NODES; node++)
+                    assertEquals(model[node] != ABSENT, queue.contains(node));
+            }
+        }
+    }
+
+    @Test
+    public void acceptsOffersBelowTheCurrentDistanceWithinRange() {
+        final BucketNodeQueue queue = new BucketNodeQueue(NODES, MAX_LENGTH);
+
+        queue.offer(0, 20);
+        queue.offer(1, 15);
+        queue.offer(2, 25);
+
+        assertEquals(1, queue.poll());
+        assertEquals(0, queue.poll());
+        assertEquals(2, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDistancesOutsideOfTheBuckets() {
+        final BucketNodeQueue queue = new BucketNodeQueue(NODES, MAX_LENGTH);
+
+        queue.offer(0, 20);
+        queue.offer(1, 20 + MAX_LENGTH + 1);
+    }
+
+    @Test
+    public void clearsEveryNode() {
+        final BucketNodeQueue queue = new BucketNodeQueue(NODES, MAX_LENGTH);
+
+        for (int node = 0; node < NODES; node++)
+            queue.offer(node, node % MAX_LENGTH);
+        queue.clear();
+
+        assertTrue(queue.isEmpty());
+        for (int node = 0; node < NODES; node++)
+            assertFalse(queue.contains(node));
+    }
+
+    private static int least(final int[] model) {
+        int least = Integer.MAX_VALUE;
+
+        for (final int distance : model) {
+            if (distance != ABSENT)
+                least = Math.min(least, distance);
+        }
+        return least;
+    }
+
+}
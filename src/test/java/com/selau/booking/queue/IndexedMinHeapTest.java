@@ -0,0 +1,93 @@
+package com.selau.booking.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IndexedMinHeapTest {
+
+    private static final int NODES = 60;
+    private static final int ABSENT = -1;
+
+    @Test
+    public void offersAndPollsLikeAModel() {
+        for (final int arity : new int[] { 2, 3, 4, 8 })
+            check(new IndexedMinHeap(NODES, arity), new Random(arity), false);
+    }
+
+    @Test
+    public void updatesInBothDirectionsLikeAModel() {
+        for (final int arity : new int[] { 2, 4 })
+            check(new IndexedMinHeap(NODES, arity), new Random(10 + arity), true);
+    }
+
+    @Test
+    public void offerOnlyDecreasesTheDistance() {
+        final IndexedMinHeap heap = new IndexedMinHeap(NODES);
+
+        heap.offer(3, 10);
+        heap.offer(3, 20);
+        assertEquals(10, heap.distance(3));
+
+        heap.offer(3, 5);
+        assertEquals(5, heap.distance(3));
+        assertEquals(3, heap.peek());
+    }
+
+    private static void check(final IndexedMinHeap heap, final Random random, final boolean updates) {
+        final int[] model = new int[NODES];
+        Arrays.fill(model, ABSENT);
+
+        for (int operation = 0; operation < 5000; operation++) {
+            final int node = random.nextInt(NODES);
+            final int distance = random.nextInt(1000);
+            final int kind = random.nextInt(3);
+
+            if (kind == 0) {
+                heap.offer(node, distance);
+                if ((model[node] == ABSENT) || (distance < model[node]))
+                    model[node] = distance;
+
+            } else if ((kind == 1) && updates) {
+                heap.update(node, distance);
+                model[node] = distance;
+
+            } else if (! heap.isEmpty()) {
+                assertEquals(least(model), heap.peekDistance());
+                final int polled = heap.poll();
+
+                assertEquals(least(model), model[polled]);
+                model[polled] = ABSENT;
+            }
+
+            int size = 0;
+            for (int other = 0; other < NODES; other++) {
+                assertEquals(model[other] != ABSENT, heap.contains(other));
+
+                if (model[other] != ABSENT) {
+                    assertEquals(model[other], heap.distance(other));
+                    size++;
+                }
+            }
+            assertEquals(size, heap.size());
+        }
+
+        heap.clear();
+        assertTrue(heap.isEmpty());
+    }
+
+    private static int least(final int[] model) {
+        int least = Integer.MAX_VALUE;
+
+        for (final int distance : model) {
+            if (distance != ABSENT)
+                least = Math.min(least, distance);
+        }
+        return least;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.selau.booking.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.selau.booking.Solution;
+import com.selau.booking.WeekendRouteSolver;
+import com.selau.booking.io.OutputWriter;
+import com.selau.booking.network.RoadsNetwork;
+
+/**
+ *  Starts worker JVMs from the test class path, so it keeps to a few shards.
+ */
+public class ShardedSolverTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(24);
+
+    @Test
+    public void solvesTheRoadsSentByTheCoordinator() throws IOException {
+        final ShardedSolver solver = new ShardedSolver(3);
+
+        try {
+            for (int test = 0; test < 100; test++) {
+                final int locations = 3 + random.nextInt(20);
+                final int[][] roads = randomRoads(locations, random.nextInt(40));
+
+                assertEquals(leastRoute(locations, roads), solve(solver, locations, roads));
+            }
+        } finally {
+            solver.close();
+            solver.close();
+        }
+    }
+
+    /**
+     *  Cases with fewer roads than shards or none at all, and roads spread
+     *  over several lines, each worker parsing a slice of the file.
+     */
+    @Test
+    public void solvesEveryCaseOfAFileBySlices() throws IOException {
+        final int[][][] cases = new int[40][][];
+        final StringBuilder input = new StringBuilder().append(cases.length).append('\n');
+        final StringBuilder expected = new StringBuilder();
+
+        for (int weekendCase = 0; weekendCase < cases.length; weekendCase++) {
+            final int locations = 3 + random.nextInt(30);
+            final int[][] roads = randomRoads(locations, (weekendCase < 4) ? weekendCase : random.nextInt(80));
+
+            input.append(locations).append(' ').append(roads.length).append('\n');
+            for (final int[] road : roads)
+                input.append(road[0] + 1).append("  ").append(road[1] + 1).append('\n').append(road[2]).append(' ');
+            input.append('\n');
+            expected.append(leastRoute(locations, roads)).append('\n');
+        }
+        final File file = write(input.toString());
+
+        for (int shards = 1; shards <= 3; shards += 2) {
+            final ShardedSolver solver = new ShardedSolver(shards);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final OutputWriter writer = new OutputWriter(output);
+
+            try {
+                solver.solveAll(file.getPath(), writer);
+                writer.flush();
+            } finally {
+                solver.close();
+            }
+            assertEquals(shards + " shards", expected.toString(), new String(output.toByteArray(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     *  The worker parsing the invalid road reports it instead of exiting, so
+     *  the solver goes on with the next network.
+     */
+    @Test
+    public void reportsTheFailureOfAWorkerParsingItsSlice() throws IOException {
+        final File file = write("2\n3 2\n1 2 5\n2 3 5\n3 4\n1 2 5\n2 3 5\n3 1 5\n1 9 5\n");
+        final ShardedSolver solver = new ShardedSolver(2);
+
+        try {
+            solver.solveAll(file.getPath(), new OutputWriter(new ByteArrayOutputStream()));
+            fail("Solved a case with an invalid road.");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("IllegalArgumentException"));
+        }
+
+        try {
+            final int[][] roads = randomRoads(10, 30);
+            assertEquals(leastRoute(10, roads), solve(solver, 10, roads));
+        } finally {
+            solver.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNoShards() throws IOException {
+        new ShardedSolver(0);
+    }
+
+    private int[][] randomRoads(final int locations, final int roads) {
+        final int[][] network = new int[roads][];
+
+        for (int road = 0; road < roads; road++)
+            network[road] = new int[] { random.nextInt(locations), random.nextInt(locations), 1 + random.nextInt(RoadsNetwork.MAX_LENGTH) };
+
+        return network;
+    }
+
+    private static int leastRoute(final int locations, final int[][] roads) {
+        return solve(new Solution.PriorityQueueSolver(), locations, roads);
+    }
+
+    private static int solve(final WeekendRouteSolver solver, final int locations, final int[][] roads) {
+        solver.reset(locations);
+
+        for (final int[] road : roads)
+            solver.addRoad(road[0], road[1], road[2]);
+
+        return solver.solve();
+    }
+
+    private File write(final String input) throws IOException {
+        final File file = folder.newFile();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII);
+
+        try {
+            writer.write(input);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+}